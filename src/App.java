@@ -1,21 +1,36 @@
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.util.NoSuchElementException;
 
 public class App {
 
     static String nomeArquivoDados;
     static Scanner teclado;
-    static Produto[] produtosCadastrados;
-    static int quantosProdutos = 0;
-    static Fila<Pedido> filaPedidos = new Fila<>();
+    /** Catálogo de produtos, em colunas; índices e pedidos guardam apenas as linhas dos produtos nele */
+    static ProdutoStore catalogo = new ProdutoStore();
+    static IndiceProdutos indiceProdutos = new IndiceProdutos(catalogo);
+    static IndiceDescricoes indiceDescricoes = new IndiceDescricoes(catalogo);
+
+    /** Tamanho, em bytes, a partir do qual o arquivo de produtos é lido em paralelo */
+    static final long TAMANHO_MINIMO_LEITURA_PARALELA = 4L * 1024 * 1024;
+
+    /** Quantidade máxima de sugestões exibidas na busca de produto por prefixo */
+    static final int MAX_SUGESTOES = 20;
+    /** Capacidade máxima da fila de pedidos finalizados aguardando processamento */
+    static final int CAPACIDADE_FILA_PEDIDOS = 10_000;
+    static FilaPedidos filaPedidos = new FilaPedidos(CAPACIDADE_FILA_PEDIDOS);
+    /** Diretório do diário de pedidos finalizados, relido a cada inicialização */
+    static final Path DIRETORIO_DIARIO_PEDIDOS = Path.of("pedidos.diario");
+    /** Tamanho a partir do qual o diário de pedidos inicia um novo segmento */
+    static final long TAMANHO_SEGMENTO_DIARIO = 4L * 1024 * 1024;
+    static DiarioPedidos diarioPedidos;
 
     static void limparTela() {
         System.out.print("\033[H\033[2J");
@@ -80,77 +95,77 @@ public class App {
         return (opcao != null) ? opcao : -1;
     }
 
-    static Produto[] lerProdutos(String nomeArquivoDados) {
-        Scanner arquivo = null;
-        int numProdutos = 0;
-        Produto[] produtosCadastrados = null;
+    static ProdutoStore lerProdutos(String nomeArquivoDados) {
+        ProdutoStore produtosCadastrados;
 
         try {
             File file = new File(nomeArquivoDados);
              if (!file.exists()) {
                 System.err.println("Erro: Arquivo de produtos '" + nomeArquivoDados + "' não encontrado.");
-                return new Produto[0];
+                return catalogoVazio();
              }
 
-            arquivo = new Scanner(file, Charset.forName("UTF-8"));
-
-            if (!arquivo.hasNextLine()) {
-                 System.err.println("Erro: Arquivo de produtos está vazio.");
-                 return new Produto[0];
-             }
-
-            String primeiraLinha = arquivo.nextLine();
-            try {
-                numProdutos = Integer.parseInt(primeiraLinha);
-                if (numProdutos < 0) {
-                     System.err.println("Erro: Quantidade de produtos no arquivo (" + numProdutos + ") é inválida.");
-                     return new Produto[0];
-                 }
-            } catch (NumberFormatException e) {
-                System.err.println("Erro: A primeira linha do arquivo ('" + primeiraLinha + "') não contém um número válido de produtos.");
-                return new Produto[0];
-            }
-
-            produtosCadastrados = new Produto[numProdutos];
-            int produtosLidos = 0;
-            while (arquivo.hasNextLine() && produtosLidos < numProdutos) {
-                String linha = arquivo.nextLine();
-                if (linha.trim().isEmpty()) continue;
+            Path retrato = caminhoRetrato(file.toPath());
+            produtosCadastrados = null;
+            if (CatalogoBinario.atualizado(retrato, file.toPath())) {
                 try {
-                    Produto produto = Produto.criarDoTexto(linha);
-                    produtosCadastrados[produtosLidos] = produto;
-                    produtosLidos++;
-                } catch (Exception e) {
-                    System.err.println("Erro ao processar linha do produto: '" + linha + "'. Erro: " + e.getMessage());
+                    produtosCadastrados = CatalogoBinario.ler(retrato);
+                } catch (IOException e) {
+                    System.err.println("Aviso: retrato binário do catálogo ignorado. " + e.getMessage());
                 }
             }
 
-            quantosProdutos = produtosLidos;
-
-            if (produtosLidos < numProdutos) {
-                System.out.println("Aviso: O arquivo indicava " + numProdutos + " produtos, mas apenas " + produtosLidos + " foram lidos ou processados corretamente.");
-                Produto[] temp = new Produto[produtosLidos];
-                System.arraycopy(produtosCadastrados, 0, temp, 0, produtosLidos);
-                produtosCadastrados = temp;
+            if (produtosCadastrados == null) {
+                if (file.length() >= TAMANHO_MINIMO_LEITURA_PARALELA && Runtime.getRuntime().availableProcessors() > 1) {
+                    produtosCadastrados = LeitorCatalogo.lerProdutosParalelo(file.toPath());
+                } else {
+                    produtosCadastrados = LeitorCatalogo.lerProdutos(file.toPath());
+                }
+                try {
+                    CatalogoBinario.gravar(retrato, produtosCadastrados, file.toPath());
+                } catch (IOException e) {
+                    System.err.println("Aviso: não foi possível gravar o retrato binário do catálogo. " + e.getMessage());
+                }
             }
+            indiceProdutos = IndiceProdutos.criar(produtosCadastrados);
+            indiceDescricoes = IndiceDescricoes.criar(produtosCadastrados);
 
         } catch (IOException excecaoArquivo) {
             System.err.println("Erro de I/O ao ler o arquivo de produtos '" + nomeArquivoDados + "': " + excecaoArquivo.getMessage());
-            return new Produto[0];
+            return catalogoVazio();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro: " + e.getMessage());
+            return catalogoVazio();
         } catch (Exception e) {
             System.err.println("Erro inesperado ao ler produtos: " + e.getClass().getSimpleName() + " - " + e.getMessage());
             e.printStackTrace();
-            return new Produto[0];
-        } finally {
-            if (arquivo != null) {
-                arquivo.close();
-            }
+            return catalogoVazio();
         }
-        System.out.println("Carregados " + quantosProdutos + " produtos do arquivo '" + nomeArquivoDados + "'.");
+        System.out.println("Carregados " + produtosCadastrados.size() + " produtos do arquivo '" + nomeArquivoDados + "'.");
         return produtosCadastrados;
     }
 
 
+    /**
+     * Catálogo vazio, com índices sobre ele, usado quando o arquivo de produtos não pode ser lido.
+     */
+    private static ProdutoStore catalogoVazio() {
+        ProdutoStore vazio = new ProdutoStore();
+        indiceProdutos = new IndiceProdutos(vazio);
+        indiceDescricoes = new IndiceDescricoes(vazio);
+        return vazio;
+    }
+
+    /**
+     * Caminho do retrato binário do catálogo: o mesmo do arquivo de produtos, com extensão .bin.
+     */
+    static Path caminhoRetrato(Path arquivoDados) {
+        String nome = arquivoDados.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        String base = (ponto > 0) ? nome.substring(0, ponto) : nome;
+        return arquivoDados.resolveSibling(base + ".bin");
+    }
+
     static Produto localizarProduto() {
         cabecalho();
         System.out.println("\nLOCALIZAR PRODUTO POR CÓDIGO");
@@ -158,12 +173,17 @@ public class App {
 
         if(idProduto == null) return null;
 
-        for (int i = 0; i < quantosProdutos; i++) {
-             if (produtosCadastrados[i] != null && produtosCadastrados[i].hashCode() == idProduto) {
-                return produtosCadastrados[i];
-            }
-        }
-        return null;
+        return indiceProdutos.localizar(idProduto);
+    }
+
+    /**
+     * Inclui um novo produto no cadastro: acrescenta uma linha ao catálogo e a inclui nos índices.
+     * @param novo Produto a ser cadastrado
+     */
+    static void cadastrarProduto(Produto novo) {
+        int linha = catalogo.adicionar(novo);
+        indiceProdutos.inserir(linha);
+        indiceDescricoes.inserir(linha);
     }
 
     static Produto localizarProdutoDescricao() {
@@ -174,13 +194,25 @@ public class App {
             System.out.println("Descrição inválida.");
             return null;
         }
-        descricao = descricao.trim().toLowerCase();
 
-        for (int i = 0; i < quantosProdutos; i++) {
-             if (produtosCadastrados[i] != null && produtosCadastrados[i].descricao != null &&
-                 produtosCadastrados[i].descricao.toLowerCase().equals(descricao)) {
-                return produtosCadastrados[i];
+        Produto produto = indiceDescricoes.localizar(descricao);
+        if (produto != null) {
+            return produto;
+        }
+
+        int[] candidatos = indiceDescricoes.localizarPorPrefixo(descricao);
+        if (candidatos.length == 1) {
+            return catalogo.produto(candidatos[0]);
+        }
+        if (candidatos.length > 1) {
+            System.out.println("--> " + candidatos.length + " produtos começam com '" + descricao.trim() + "':");
+            for (int i = 0; i < candidatos.length && i < MAX_SUGESTOES; i++) {
+                System.out.printf("     %-5d - %s%n", catalogo.id(candidatos[i]), catalogo.descricao(candidatos[i]));
             }
+            if (candidatos.length > MAX_SUGESTOES) {
+                System.out.println("     ...");
+            }
+            System.out.println("    Digite a descrição completa para escolher um deles.");
         }
         return null;
     }
@@ -196,19 +228,18 @@ public class App {
 
     static void listarTodosOsProdutos() {
         System.out.println("\nPRODUTOS CADASTRADOS:");
-        if (quantosProdutos == 0) {
+        int quantos = catalogo.size();
+        if (quantos == 0) {
             System.out.println("--> Nenhum produto cadastrado.");
             return;
         }
-        for (int i = 0; i < quantosProdutos; i++) {
-             if (produtosCadastrados[i] != null) {
-                 System.out.printf(" %-5d - %-40s - R$ %8.2f%n",
-                                   produtosCadastrados[i].idProduto,
-                                   produtosCadastrados[i].descricao,
-                                   produtosCadastrados[i].valorDeVenda());
-             } else {
-                 System.out.printf(" [%d] - [Produto inválido/não carregado]%n", i);
-             }
+        // Lido direto das colunas, com uma única consulta ao relógio de preços
+        long hoje = RelogioPrecos.diaAtual();
+        for (int linha = 0; linha < quantos; linha++) {
+             System.out.printf(" %-5d - %-40s - R$ %8s%n",
+                               catalogo.id(linha),
+                               catalogo.descricao(linha),
+                               Dinheiro.formatar(catalogo.valorDeVendaCentavos(linha, hoje)));
         }
     }
 
@@ -223,7 +254,7 @@ public class App {
              }
         }
 
-        Pedido novoPedido = new Pedido(LocalDate.now(), formaPagamento);
+        Pedido novoPedido = new Pedido(catalogo, LocalDate.now(), formaPagamento);
         String continuar;
 
         limparTela();
@@ -237,11 +268,11 @@ public class App {
             if (produto == null) {
                 System.out.println("--> Produto não encontrado.");
             } else {
-                if (novoPedido.incluirProduto(produto)) {
-                    System.out.println("--> '" + produto.descricao + "' adicionado ao pedido.");
+                Integer quantidade = lerNumero("Quantidade de '" + produto.descricao + "':", Integer.class);
+                if (quantidade != null && novoPedido.incluirProduto(produto, quantidade)) {
+                    System.out.println("--> " + quantidade + " x '" + produto.descricao + "' adicionado(s) ao pedido.");
                 } else {
-                    System.out.println("--> Pedido cheio (Máx: " + Pedido.MAX_PRODUTOS + "). Não foi possível adicionar '" + produto.descricao + "'.");
-                    break;
+                    System.out.println("--> Quantidade inválida. Não foi possível adicionar '" + produto.descricao + "'.");
                 }
             }
             System.out.print("\nDeseja adicionar outro produto? (S/N): ");
@@ -253,16 +284,40 @@ public class App {
         return novoPedido;
     }
 
-    public static void finalizarPedido(Pedido pedidoEmAndamento) {
+    public static boolean finalizarPedido(Pedido pedidoEmAndamento) {
          cabecalho();
          System.out.println("\nFINALIZAR PEDIDO");
         if (pedidoEmAndamento != null && pedidoEmAndamento.getQuantosProdutos() > 0) {
-            filaPedidos.inserir(pedidoEmAndamento);
-            System.out.println("--> Pedido ID: " + pedidoEmAndamento.getIdPedido() + " finalizado e adicionado à fila.");
+            // O pedido é gravado no diário antes de entrar na fila; se não couber, o registro é desfeito
+            if (diarioPedidos != null) {
+                try {
+                    diarioPedidos.registrar(pedidoEmAndamento);
+                } catch (IOException | IllegalStateException e) {
+                    System.out.println("--> Não foi possível gravar o pedido ID: " + pedidoEmAndamento.getIdPedido() + " no diário de pedidos. O pedido não foi finalizado.");
+                    System.out.println("    " + e.getMessage());
+                    System.out.println("    O pedido continua em andamento; corrija o problema de gravação e reinicie o sistema.");
+                    return false;
+                }
+            }
+            if (filaPedidos.tentarInserir(pedidoEmAndamento)) {
+                System.out.println("--> Pedido ID: " + pedidoEmAndamento.getIdPedido() + " finalizado e adicionado à fila.");
+                if (diarioPedidos == null) {
+                    System.out.println("    Atenção: o diário de pedidos está indisponível; este pedido não será preservado se o sistema parar.");
+                }
+                return true;
+            } else {
+                if (diarioPedidos != null) {
+                    diarioPedidos.registrarConsumo(pedidoEmAndamento);
+                }
+                System.out.println("--> A fila de pedidos está cheia (Máx: " + filaPedidos.capacidade() + "). Pedido ID: " + pedidoEmAndamento.getIdPedido() + " não foi finalizado.");
+                System.out.println("    Aguarde o processamento dos pedidos e tente novamente.");
+                return false;
+            }
         } else {
             System.out.println("--> Nenhum pedido válido em andamento para finalizar.");
             System.out.println("    Use a opção 4 para iniciar um novo pedido.");
         }
+        return true;
     }
 
 
@@ -282,8 +337,7 @@ public class App {
         }
 
         try {
-            Function<Pedido, Double> extratorValor = Pedido::valorFinal;
-            double media = filaPedidos.calcularValorMedio(extratorValor, n);
+            double media = filaPedidos.mediaPrimeiros(n);
             System.out.printf("--> O valor médio dos primeiros %d pedido(s) é: R$ %.2f%n", n, media);
         } catch (IllegalArgumentException e) {
             System.out.println("ERRO: " + e.getMessage());
@@ -318,20 +372,15 @@ public class App {
 
         try {
             Predicate<Pedido> acimaDoValor = pedido -> pedido.valorFinal() > valorMinimo;
-            Fila<Pedido> pedidosFiltrados = filaPedidos.filtrar(acimaDoValor, n);
+            // O retrato é percorrido sem a trava: a exibição não atrasa a chegada de novos pedidos
+            List<Pedido> pedidosFiltrados = filaPedidos.retrato().stream().limit(n).filter(acimaDoValor).toList();
 
-            if (pedidosFiltrados.vazia()) {
+            if (pedidosFiltrados.isEmpty()) {
                 System.out.printf("--> Nenhum dos primeiros %d pedidos possui valor total acima de R$ %.2f%n", n, valorMinimo);
             } else {
                 System.out.printf("%n--- Pedidos (dos primeiros %d analisados) com valor acima de R$ %.2f ---%n", n, valorMinimo);
-                int count = 1;
-                while (!pedidosFiltrados.vazia()) {
-                    try {
-                         Pedido p = pedidosFiltrados.remover();
-                         System.out.println("\n--- PEDIDO FILTRADO " + count++ + " (ID original: " + p.getIdPedido() + ") ---");
-                         System.out.println(p.toString());
-                         System.out.println("---------------------------------------");
-                    } catch (NoSuchElementException ignored) { break; }
+                for (int i = 0; i < pedidosFiltrados.size(); i++) {
+                    exibirPedidoFiltrado(i + 1, pedidosFiltrados.get(i));
                 }
             }
         } catch (IllegalArgumentException e) {
@@ -342,6 +391,12 @@ public class App {
         }
     }
 
+    private static void exibirPedidoFiltrado(int numero, Pedido p) {
+        System.out.println("\n--- PEDIDO FILTRADO " + numero + " (ID original: " + p.getIdPedido() + ") ---");
+        System.out.println(p.toString());
+        System.out.println("---------------------------------------");
+    }
+
      public static void exibirPedidosComProduto() {
         cabecalho();
         System.out.println("\nFILTRAR PEDIDOS COM PRODUTO ESPECÍFICO");
@@ -367,31 +422,21 @@ public class App {
         final String descProdutoFinal = descProduto.trim();
 
         try {
-            Predicate<Pedido> contemProduto = pedido -> {
-                Produto[] produtosDoPedido = pedido.getProdutos();
-                for (int i = 0; i < pedido.getQuantosProdutos(); i++) {
-                    if (produtosDoPedido[i] != null && produtosDoPedido[i].descricao != null &&
-                        produtosDoPedido[i].descricao.equalsIgnoreCase(descProdutoFinal)) {
-                        return true;
-                    }
-                }
-                return false;
-            };
-
-            Fila<Pedido> pedidosFiltrados = filaPedidos.filtrar(contemProduto, n);
+            // Todos os produtos com a descrição procurada, mesmo que haja mais de um
+            int[] linhasProcuradas = indiceDescricoes.localizarTodos(descProdutoFinal);
+            int[] idsProcurados = new int[linhasProcuradas.length];
+            for (int i = 0; i < linhasProcuradas.length; i++) {
+                idsProcurados[i] = catalogo.id(linhasProcuradas[i]);
+            }
+            Fila<Pedido> pedidosFiltrados = filaPedidos.pedidosComProdutos(idsProcurados, n);
 
             if (pedidosFiltrados.vazia()) {
                 System.out.println("--> Nenhum dos primeiros " + n + " pedidos contém o produto '" + descProdutoFinal + "'.");
             } else {
                 System.out.println("\n--- Pedidos (dos primeiros " + n + " analisados) que contêm '" + descProdutoFinal + "' ---");
-                 int count = 1;
+                int count = 1;
                 while (!pedidosFiltrados.vazia()) {
-                     try {
-                         Pedido p = pedidosFiltrados.remover();
-                         System.out.println("\n--- PEDIDO FILTRADO " + count++ + " (ID original: " + p.getIdPedido() + ") ---");
-                         System.out.println(p.toString());
-                         System.out.println("---------------------------------------");
-                     } catch (NoSuchElementException ignored) { break; }
+                    exibirPedidoFiltrado(count++, pedidosFiltrados.remover());
                 }
             }
         } catch (IllegalArgumentException e) {
@@ -402,19 +447,59 @@ public class App {
         }
     }
 
+    /**
+     * Abre o diário de pedidos e devolve à fila os pedidos finalizados e ainda não consumidos.
+     * Pedidos que não cabem mais na fila são descartados do diário.
+     * Sem o diário, o sistema continua funcionando, mas os pedidos finalizados não são preservados.
+     */
+    static void abrirDiarioPedidos() {
+        try {
+            diarioPedidos = new DiarioPedidos(DIRETORIO_DIARIO_PEDIDOS, TAMANHO_SEGMENTO_DIARIO, indiceProdutos,
+                    catalogo.impressaoDigital());
+        } catch (IOException e) {
+            System.err.println("Aviso: diário de pedidos indisponível; os pedidos finalizados não serão preservados. " + e.getMessage());
+            return;
+        }
+
+        int recuperados = 0;
+        for (Pedido pedido : diarioPedidos.pedidosPendentes()) {
+            if (filaPedidos.tentarInserir(pedido)) {
+                recuperados++;
+            } else {
+                System.err.println("Aviso: fila de pedidos cheia; pedido ID: " + pedido.getIdPedido() + " do diário descartado.");
+                diarioPedidos.registrarConsumo(pedido);
+            }
+        }
+        filaPedidos.usarDiario(diarioPedidos);
+        if (recuperados > 0) {
+            System.out.println("Recuperados " + recuperados + " pedido(s) do diário de pedidos.");
+        }
+    }
+
+    static void fecharDiarioPedidos() {
+        if (diarioPedidos != null) {
+            try {
+                diarioPedidos.fechar();
+            } catch (IOException e) {
+                System.err.println("Aviso: erro ao fechar o diário de pedidos. " + e.getMessage());
+            }
+        }
+    }
+
     public static void main(String[] args) {
 
         teclado = new Scanner(System.in, Charset.forName("UTF-8"));
         nomeArquivoDados = "produtos.txt";
-        produtosCadastrados = lerProdutos(nomeArquivoDados);
+        catalogo = lerProdutos(nomeArquivoDados);
 
-         if (produtosCadastrados == null) {
+         if (catalogo == null) {
              System.out.println("Erro crítico ao carregar produtos. Encerrando.");
              teclado.close();
              return;
-         } else if (quantosProdutos == 0){
+         } else if (catalogo.size() == 0){
               System.out.println("Aviso: Nenhum produto foi carregado. Algumas funcionalidades podem não operar como esperado.");
          }
+        abrirDiarioPedidos();
 
         Pedido pedidoAtual = null;
         int opcao = -1;
@@ -447,8 +532,9 @@ public class App {
                      }
                     break;
                 case 5:
-                    finalizarPedido(pedidoAtual);
-                    pedidoAtual = null;
+                    if (finalizarPedido(pedidoAtual)) {
+                        pedidoAtual = null;
+                    }
                     break;
                 case 6: // Renumerado
                     exibirValorMedioPedidos();
@@ -478,6 +564,7 @@ public class App {
 
         } while(opcao != 0);
 
+        fecharDiarioPedidos();
         System.out.println("\nObrigado por utilizar o sistema!");
         teclado.close();
     }
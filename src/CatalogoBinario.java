@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Retrato binário do catálogo de produtos, para uma inicialização rápida sem interpretar texto.
+ * Formato (big-endian):
+ * - cabeçalho: identificador "PROD" (int), versão (short), quantidade de produtos (int),
+ *   tamanho (long), data de modificação (long) e impressão digital (long, ver ProdutoStore.impressaoDigital)
+ *   do arquivo de texto de origem, CRC32 do corpo (long);
+ * - corpo, para cada linha do catálogo: tipo (byte), código (int), preço de custo em centavos (long),
+ *   margem de lucro em pontos-base (long), validade em dias desde 01/01/1970 (int, 0 para não perecíveis),
+ *   tamanho da descrição (short) e a descrição em UTF-8.
+ * O corpo é copiado das colunas do ProdutoStore e lido de volta para elas, sem criar objetos Produto.
+ * O retrato é considerado atualizado enquanto o arquivo de texto de origem mantiver o mesmo tamanho
+ * e a mesma data de modificação.
+ */
+public class CatalogoBinario {
+
+	private static final int IDENTIFICADOR = 0x50524F44; // "PROD"
+	private static final short VERSAO = 3;
+	private static final int TAMANHO_CABECALHO = 4 + 2 + 4 + 8 + 8 + 8 + 8;
+	private static final int TAMANHO_FIXO_PRODUTO = 1 + 4 + 8 + 8 + 4 + 2;
+
+	private static final byte TIPO_NAO_PERECIVEL = ProdutoStore.TIPO_NAO_PERECIVEL;
+	private static final byte TIPO_PERECIVEL = ProdutoStore.TIPO_PERECIVEL;
+
+	/**
+	 * Grava o retrato binário de todas as linhas do catálogo. O arquivo é escrito em um
+	 * temporário e depois movido para o destino, de modo que um retrato incompleto nunca é lido.
+	 * @param destino Caminho do retrato binário
+	 * @param catalogo Catálogo de produtos
+	 * @param origem Arquivo de texto do qual os produtos foram lidos
+	 * @throws IOException em caso de erro de escrita
+	 */
+	public static void gravar(Path destino, ProdutoStore catalogo, Path origem) throws IOException {
+		int quantos = catalogo.size();
+		byte[][] descricoes = new byte[quantos][];
+		int tamanhoCorpo = 0;
+		for (int linha = 0; linha < quantos; linha++) {
+			descricoes[linha] = catalogo.descricao(linha).getBytes(StandardCharsets.UTF_8);
+			if (descricoes[linha].length > Short.MAX_VALUE) {
+				throw new IOException("Descrição muito longa para o retrato binário: produto " + catalogo.id(linha));
+			}
+			tamanhoCorpo += TAMANHO_FIXO_PRODUTO + descricoes[linha].length;
+		}
+
+		ByteBuffer corpo = ByteBuffer.allocate(tamanhoCorpo);
+		for (int linha = 0; linha < quantos; linha++) {
+			corpo.put(catalogo.perecivel(linha) ? TIPO_PERECIVEL : TIPO_NAO_PERECIVEL);
+			corpo.putInt(catalogo.id(linha));
+			corpo.putLong(catalogo.precoCustoCentavos(linha));
+			corpo.putLong(catalogo.margemLucroPontosBase(linha));
+			corpo.putInt(catalogo.validade(linha));
+			corpo.putShort((short) descricoes[linha].length);
+			corpo.put(descricoes[linha]);
+		}
+		corpo.flip();
+
+		CRC32 crc = new CRC32();
+		crc.update(corpo.duplicate());
+
+		ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+		cabecalho.putInt(IDENTIFICADOR);
+		cabecalho.putShort(VERSAO);
+		cabecalho.putInt(quantos);
+		cabecalho.putLong(Files.size(origem));
+		cabecalho.putLong(Files.getLastModifiedTime(origem).toMillis());
+		cabecalho.putLong(catalogo.impressaoDigital());
+		cabecalho.putLong(crc.getValue());
+		cabecalho.flip();
+
+		Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+		try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (cabecalho.hasRemaining()) {
+				canal.write(cabecalho);
+			}
+			while (corpo.hasRemaining()) {
+				canal.write(corpo);
+			}
+		}
+		Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Verifica se existe um retrato binário, na versão atual, gerado a partir do estado atual do arquivo de origem.
+	 * @param retrato Caminho do retrato binário
+	 * @param origem Arquivo de texto de origem
+	 * @return true/false indicando se o retrato pode ser usado no lugar do arquivo de origem
+	 */
+	public static boolean atualizado(Path retrato, Path origem) {
+		if (!Files.isRegularFile(retrato) || !Files.isRegularFile(origem)) {
+			return false;
+		}
+		try (FileChannel canal = FileChannel.open(retrato, StandardOpenOption.READ)) {
+			ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+			while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+			}
+			if (cabecalho.hasRemaining()) {
+				return false;
+			}
+			cabecalho.flip();
+			return cabecalho.getInt() == IDENTIFICADOR
+					&& cabecalho.getShort() == VERSAO
+					&& cabecalho.getInt() >= 0
+					&& cabecalho.getLong() == Files.size(origem)
+					&& cabecalho.getLong() == Files.getLastModifiedTime(origem).toMillis();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Lê os produtos do retrato binário para as colunas de um catálogo, mantendo seus códigos identificadores
+	 * originais, sem consumir códigos novos; ao final, o próximo código a ser distribuído passa a ser maior
+	 * que todos os lidos.
+	 * Produtos perecíveis que tenham vencido desde a gravação são informados em System.err e descartados,
+	 * assim como aconteceria na leitura do arquivo de texto; a impressão digital do arquivo de origem, gravada
+	 * no cabeçalho, é mantida, pois os códigos dos descartados continuam reservados.
+	 * @param retrato Caminho do retrato binário
+	 * @return Catálogo com os produtos lidos, na ordem do retrato
+	 * @throws IOException em caso de erro de leitura, versão incompatível ou retrato corrompido
+	 */
+	public static ProdutoStore ler(Path retrato) throws IOException {
+		try (FileChannel canal = FileChannel.open(retrato, StandardOpenOption.READ)) {
+			ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			if (dados.remaining() < TAMANHO_CABECALHO || dados.getInt() != IDENTIFICADOR) {
+				throw new IOException("O arquivo '" + retrato + "' não é um retrato binário do catálogo.");
+			}
+			short versao = dados.getShort();
+			if (versao != VERSAO) {
+				throw new IOException("Versão " + versao + " do retrato binário não é suportada.");
+			}
+			int quantidade = dados.getInt();
+			dados.getLong();
+			dados.getLong();
+			long impressaoDigital = dados.getLong();
+			long crcEsperado = dados.getLong();
+
+			CRC32 crc = new CRC32();
+			crc.update(dados.duplicate());
+			if (crc.getValue() != crcEsperado) {
+				throw new IOException("Retrato binário do catálogo corrompido (CRC32 não confere).");
+			}
+
+			ProdutoStore catalogo = new ProdutoStore(quantidade);
+			catalogo.definirImpressaoDigital(impressaoDigital);
+			int maiorID = -1;
+			long hoje = RelogioPrecos.diaAtual();
+			byte[] descricao = new byte[256];
+			try {
+				for (int i = 0; i < quantidade; i++) {
+					byte tipo = dados.get();
+					int id = dados.getInt();
+					long precoCustoCentavos = dados.getLong();
+					long margemLucroPontosBase = dados.getLong();
+					int validade = dados.getInt();
+					int tamanhoDescricao = dados.getShort();
+					if (tamanhoDescricao > descricao.length) {
+						descricao = new byte[tamanhoDescricao];
+					}
+					dados.get(descricao, 0, tamanhoDescricao);
+					String textoDescricao = new String(descricao, 0, tamanhoDescricao, StandardCharsets.UTF_8);
+
+					maiorID = Math.max(maiorID, id);
+					if (tipo == TIPO_PERECIVEL && validade < hoje) {
+						System.err.println("Erro ao restaurar o produto " + id + " ('" + textoDescricao
+								+ "'). Erro: Data de validade do produto é anterior ao dia de hoje!");
+						continue;
+					}
+					catalogo.adicionar(tipo, id, textoDescricao, precoCustoCentavos, margemLucroPontosBase, validade);
+				}
+			} catch (RuntimeException e) {
+				throw new IOException("Retrato binário do catálogo incompleto: " + e.getMessage(), e);
+			}
+
+			// Mesmo os códigos de produtos descartados continuam reservados, como na leitura do texto
+			if (maiorID >= 0) {
+				Produto.avancarID(maiorID + 1);
+			}
+
+			return catalogo;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 public class Celula<T> {
 
-	private final T item;
+	private T item;
 	private Celula<T> proximo;
 
 	public Celula() {
@@ -22,6 +22,10 @@ public class Celula<T> {
 		return item;
 	}
 
+	public void setItem(T item) {
+		this.item = item;
+	}
+
 	public Celula<T> getProximo() {
 		return proximo;
 	}
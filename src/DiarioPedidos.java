@@ -0,0 +1,725 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (log de escrita antecipada) dos pedidos finalizados, para que os pedidos ainda não consumidos
+ * sobrevivam a uma parada do sistema. Cada pedido finalizado é acrescentado ao diário antes de entrar
+ * na fila; cada pedido consumido recebe um registro de consumo. Ao abrir o diário, os registros são
+ * relidos e os pedidos finalizados e não consumidos são recriados, na ordem de finalização.
+ *
+ * O diário é dividido em segmentos (arquivos "00000001.log", "00000002.log", ... no diretório do diário):
+ * um novo segmento é iniciado quando o atual atinge o tamanho máximo, e os segmentos mais antigos são
+ * apagados assim que todos os seus pedidos forem consumidos. Ao abrir, o diário é compactado:
+ * os pedidos pendentes são regravados em um único segmento novo e os anteriores são apagados.
+ *
+ * Gravação em grupo: quem registra um pedido só retorna depois que o registro foi gravado e sincronizado
+ * com o disco (force). Enquanto uma thread sincroniza, os registros das demais se acumulam em memória e
+ * são gravados juntos, com uma única sincronização, pela próxima thread que assumir a gravação.
+ * Registros de consumo usam a mesma gravação em grupo: quem registra um consumo também só retorna
+ * depois que ele está em disco. A entrega é "ao menos uma vez": um pedido removido da fila e ainda não
+ * registrado como consumido (parada entre a remoção e a gravação do consumo, ou falha de gravação)
+ * é recriado na próxima abertura. Um mesmo pedido nunca é recriado duas vezes, pois a releitura
+ * guarda os pedidos pelo código.
+ *
+ * Formato (big-endian):
+ * - cabeçalho do segmento: identificador "PEDS" (int), versão (short), número do segmento (int),
+ *   código do próximo pedido no momento da criação do segmento (int) e a impressão digital do catálogo
+ *   de produtos em uso (long, ver ProdutoStore.impressaoDigital);
+ * - cada registro: tamanho do conteúdo (int), CRC32 do conteúdo (int) e o conteúdo, que começa pelo tipo (byte):
+ *   - pedido finalizado: código do pedido (int), data em dias desde 01/01/1970 (int), forma de pagamento (byte),
+ *     quantidade de itens (int) e, para cada item, código do produto (int) e quantidade (int);
+ *   - pedido consumido: código do pedido (int).
+ * A releitura de um segmento termina no primeiro registro incompleto ou com CRC32 inválido, que só pode
+ * ser o resultado de uma gravação interrompida e, portanto, nunca foi confirmado a quem o registrou.
+ * Os registros guardam apenas os códigos dos produtos, que dependem da ordem das linhas do arquivo de produtos.
+ * Na releitura, os produtos são localizados pelo código no catálogo em uso; um pedido com algum produto que
+ * não esteja mais no catálogo é informado em System.err e descartado, sem impedir a recuperação dos demais.
+ * Pedidos gravados com outro catálogo (outra impressão digital) também são recriados pelos códigos, com um aviso.
+ */
+public class DiarioPedidos {
+
+	private static final int IDENTIFICADOR = 0x50454453; // "PEDS"
+	private static final short VERSAO = 2;
+	private static final int TAMANHO_CABECALHO = 4 + 2 + 4 + 4 + 8;
+	private static final int TAMANHO_MOLDURA = 4 + 4;
+	private static final int TAMANHO_FIXO_FINALIZADO = 1 + 4 + 4 + 1 + 4;
+	private static final int TAMANHO_ITEM = 4 + 4;
+
+	private static final byte TIPO_FINALIZADO = 1;
+	private static final byte TIPO_CONSUMIDO = 2;
+
+	private static final String EXTENSAO_SEGMENTO = ".log";
+	private static final String EXTENSAO_TEMPORARIO = ".tmp";
+
+	private final Path diretorio;
+	private final long tamanhoSegmento;
+	/** Localiza, no catálogo em uso, a linha dos produtos dos pedidos relidos a partir do código gravado */
+	private final IndiceProdutos catalogo;
+	/** Impressão digital do catálogo em uso, gravada no cabeçalho de cada segmento */
+	private final long impressaoCatalogo;
+
+	/** Protege o estado do diário; a gravação em disco é feita sem ela, pela thread que marcou "gravando" */
+	private final ReentrantLock trava = new ReentrantLock();
+	private final Condition gravacaoConcluida = trava.newCondition();
+
+	/** Pedidos finalizados e não consumidos, em ordem de finalização, com o segmento em que foram registrados */
+	private final LinkedHashMap<Integer, Pendente> pendentes = new LinkedHashMap<>();
+	/** Quantidade de pedidos pendentes de cada segmento; segmentos sem pendentes não aparecem */
+	private final HashMap<Integer, Integer> pendentesPorSegmento = new HashMap<>();
+	/** Segmentos já liberados, que serão apagados na próxima gravação */
+	private final ArrayList<Integer> segmentosDescartados = new ArrayList<>();
+	/** Registros ainda não gravados, agrupados pelo segmento de destino, em ordem */
+	private ArrayDeque<Lote> lotes = new ArrayDeque<>();
+
+	/** Segmento mais antigo ainda existente; os segmentos são apagados sempre a partir dele */
+	private int primeiroSegmento;
+	/** Segmento que recebe os novos registros */
+	private int segmentoAtual;
+	/** Tamanho do segmento atual, contando os registros ainda não gravados */
+	private long bytesSegmentoAtual;
+	private long registrosAnexados;
+	private long registrosGravados;
+	private boolean gravando;
+	private boolean fechado;
+	private IOException falha;
+
+	/** Arquivo aberto para escrita; usado apenas pela thread que está gravando */
+	private FileChannel canal;
+	private int segmentoDoCanal;
+
+	/**
+	 * Abre o diário no diretório informado (criando-o, se preciso), relê os segmentos existentes
+	 * e compacta os pedidos pendentes em um novo segmento.
+	 * Os pedidos recriados ficam disponíveis em pedidosPendentes(); o contador de códigos de pedido
+	 * é avançado para além de todos os códigos encontrados.
+	 * @param diretorio Diretório do diário
+	 * @param tamanhoSegmento Tamanho, em bytes, a partir do qual um novo segmento é iniciado
+	 * @param catalogo Índice por código do catálogo em uso; os pedidos recriados guardam as linhas desse catálogo
+	 * @param impressaoCatalogo Impressão digital do catálogo em uso (ProdutoStore.impressaoDigital)
+	 * @throws IOException em caso de erro de leitura ou escrita ou de um segmento que não pertença a um diário;
+	 * nesse caso, os segmentos do diário não são alterados
+	 */
+	public DiarioPedidos(Path diretorio, long tamanhoSegmento, IndiceProdutos catalogo, long impressaoCatalogo)
+			throws IOException {
+		if (tamanhoSegmento <= TAMANHO_CABECALHO) {
+			throw new IllegalArgumentException("O tamanho do segmento deve ser maior que " + TAMANHO_CABECALHO + " bytes.");
+		}
+		this.diretorio = diretorio;
+		this.tamanhoSegmento = tamanhoSegmento;
+		this.catalogo = catalogo;
+		this.impressaoCatalogo = impressaoCatalogo;
+		Files.createDirectories(diretorio);
+		segmentoAtual = reler();
+		compactar();
+	}
+
+	/**
+	 * Acrescenta o pedido finalizado ao diário e aguarda até que o registro esteja gravado em disco.
+	 * @throws IOException caso a gravação falhe; a partir daí o diário não aceita novos registros
+	 * @throws IllegalArgumentException caso o pedido já esteja pendente no diário
+	 * @throws IllegalStateException caso o diário esteja fechado
+	 */
+	public void registrar(Pedido pedido) throws IOException {
+		Lote registro = registroFinalizado(pedido);
+		trava.lock();
+		try {
+			verificarDisponivel();
+			if (pendentes.containsKey(pedido.getIdPedido())) {
+				throw new IllegalArgumentException("O pedido " + pedido.getIdPedido() + " já está registrado no diário.");
+			}
+			anexar(registro);
+			pendentes.put(pedido.getIdPedido(), new Pendente(pedido, segmentoAtual));
+			pendentesPorSegmento.merge(segmentoAtual, 1, Integer::sum);
+			aguardarGravacao(registrosAnexados);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Registra que o pedido foi consumido (ou descartado) e não deve ser recriado, e aguarda até que o registro
+	 * esteja gravado em disco, na mesma gravação em grupo dos pedidos finalizados.
+	 * Não lança exceções, pois é chamado por quem remove pedidos da fila: se o diário estiver fechado ou
+	 * indisponível após uma falha de gravação, o consumo não é registrado e o pedido será recriado na próxima abertura.
+	 * Pedidos que não estão pendentes no diário são ignorados.
+	 * @return true/false indicando se o consumo está gravado em disco (ou se o pedido não estava pendente)
+	 */
+	public boolean registrarConsumo(Pedido pedido) {
+		trava.lock();
+		try {
+			if (fechado || falha != null) {
+				return false;
+			}
+			anexarConsumo(pedido);
+			return aguardarConsumos();
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Registra o consumo dos pedidos, como registrarConsumo, aguardando uma única gravação para todos.
+	 * @param pedidos Pedidos consumidos
+	 * @return true/false indicando se os consumos estão gravados em disco
+	 */
+	public boolean registrarConsumo(List<Pedido> pedidos) {
+		trava.lock();
+		try {
+			if (fechado || falha != null) {
+				return false;
+			}
+			for (Pedido pedido : pedidos) {
+				anexarConsumo(pedido);
+			}
+			return aguardarConsumos();
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Anexa o registro de consumo do pedido, caso ele esteja pendente. Exige a trava.
+	 */
+	private void anexarConsumo(Pedido pedido) {
+		Pendente pendente = pendentes.remove(pedido.getIdPedido());
+		if (pendente == null) {
+			return;
+		}
+		Lote registro = new Lote(TAMANHO_MOLDURA + 1 + 4);
+		registro.iniciarRegistro();
+		registro.escreverByte(TIPO_CONSUMIDO);
+		registro.escreverInt(pedido.getIdPedido());
+		registro.concluirRegistro();
+		anexar(registro);
+		pendentesPorSegmento.merge(pendente.segmento, -1, (atual, menos) -> (atual + menos == 0) ? null : atual + menos);
+		descartarSegmentosConsumidos();
+	}
+
+	/**
+	 * Aguarda a gravação de tudo o que foi anexado, sem lançar a falha. Exige a trava.
+	 */
+	private boolean aguardarConsumos() {
+		try {
+			aguardarGravacao(registrosAnexados);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Retorna, em ordem de finalização, os pedidos finalizados e ainda não consumidos.
+	 */
+	public List<Pedido> pedidosPendentes() {
+		trava.lock();
+		try {
+			List<Pedido> pedidos = new ArrayList<>(pendentes.size());
+			for (Pendente pendente : pendentes.values()) {
+				pedidos.add(pendente.pedido);
+			}
+			return pedidos;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Regrava todos os pedidos pendentes em um novo segmento e apaga os segmentos anteriores,
+	 * descartando os registros de pedidos já consumidos. O novo segmento é escrito em um arquivo
+	 * temporário e depois movido para o destino, de modo que uma compactação interrompida não perde pedidos.
+	 * Os registros e consumos são bloqueados durante a compactação.
+	 * @throws IOException caso a gravação falhe; a partir daí o diário não aceita novos registros
+	 */
+	public void compactar() throws IOException {
+		trava.lock();
+		try {
+			verificarDisponivel();
+			while (gravando) {
+				gravacaoConcluida.awaitUninterruptibly();
+			}
+			verificarDisponivel();
+			gravando = true;
+			boolean concluido = false;
+			try {
+				int novoSegmento = segmentoAtual + 1;
+				Lote conteudo = new Lote(TAMANHO_CABECALHO + pendentes.size() * (TAMANHO_MOLDURA + TAMANHO_FIXO_FINALIZADO + TAMANHO_ITEM));
+				conteudo.escreverCabecalho(novoSegmento, impressaoCatalogo);
+				for (Pendente pendente : pendentes.values()) {
+					conteudo.escrever(registroFinalizado(pendente.pedido));
+				}
+
+				Path destino = arquivo(novoSegmento);
+				Path temporario = destino.resolveSibling(destino.getFileName() + EXTENSAO_TEMPORARIO);
+				try (FileChannel temp = FileChannel.open(temporario, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+					conteudo.gravar(temp);
+					temp.force(true);
+				}
+				Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				sincronizarDiretorio();
+
+				fecharCanal();
+				canal = FileChannel.open(destino, StandardOpenOption.WRITE);
+				canal.position(canal.size());
+				segmentoDoCanal = novoSegmento;
+				for (int segmento = primeiroSegmento; segmento < novoSegmento; segmento++) {
+					Files.deleteIfExists(arquivo(segmento));
+				}
+
+				lotes.clear();
+				segmentosDescartados.clear();
+				pendentesPorSegmento.clear();
+				for (Pendente pendente : pendentes.values()) {
+					pendente.segmento = novoSegmento;
+				}
+				if (!pendentes.isEmpty()) {
+					pendentesPorSegmento.put(novoSegmento, pendentes.size());
+				}
+				primeiroSegmento = novoSegmento;
+				segmentoAtual = novoSegmento;
+				bytesSegmentoAtual = conteudo.tamanho;
+				registrosGravados = registrosAnexados;
+				concluido = true;
+			} finally {
+				gravando = false;
+				if (!concluido && falha == null) {
+					falha = new IOException("A compactação do diário de pedidos foi interrompida.");
+				}
+				gravacaoConcluida.signalAll();
+			}
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Grava os registros pendentes (inclusive os de consumo) e fecha o diário.
+	 * @throws IOException caso a gravação falhe
+	 */
+	public void fechar() throws IOException {
+		trava.lock();
+		try {
+			if (fechado) {
+				return;
+			}
+			try {
+				if (falha == null) {
+					aguardarGravacao(registrosAnexados);
+				}
+			} finally {
+				while (gravando) {
+					gravacaoConcluida.awaitUninterruptibly();
+				}
+				fechado = true;
+				fecharCanal();
+			}
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Aguarda até que os registros anexados até o número informado estejam gravados em disco.
+	 * Se nenhuma thread estiver gravando, esta assume a gravação de tudo o que estiver acumulado.
+	 * Exige a trava, obtida uma única vez; ela é liberada durante a escrita em disco.
+	 */
+	private void aguardarGravacao(long registro) throws IOException {
+		while (registrosGravados < registro) {
+			if (falha != null) {
+				throw new IOException("O diário de pedidos está indisponível após uma falha de gravação.", falha);
+			}
+			if (gravando) {
+				gravacaoConcluida.awaitUninterruptibly();
+				continue;
+			}
+			gravando = true;
+			ArrayDeque<Lote> aGravar = lotes;
+			lotes = new ArrayDeque<>();
+			Integer[] aApagar = segmentosDescartados.toArray(new Integer[0]);
+			segmentosDescartados.clear();
+			long ultimo = registrosAnexados;
+
+			IOException erro = null;
+			boolean concluido = false;
+			trava.unlock();
+			try {
+				gravar(aGravar);
+				for (Integer segmento : aApagar) {
+					Files.deleteIfExists(arquivo(segmento));
+				}
+				concluido = true;
+			} catch (IOException e) {
+				erro = e;
+			} finally {
+				trava.lock();
+				gravando = false;
+				if (concluido) {
+					registrosGravados = ultimo;
+				} else {
+					falha = (erro != null) ? erro : new IOException("A gravação do diário de pedidos foi interrompida.");
+				}
+				gravacaoConcluida.signalAll();
+			}
+			if (erro != null) {
+				throw erro;
+			}
+		}
+	}
+
+	/**
+	 * Escreve os lotes em seus segmentos e sincroniza com o disco. Executado sem a trava,
+	 * apenas pela thread que está gravando.
+	 */
+	private void gravar(ArrayDeque<Lote> aGravar) throws IOException {
+		boolean novoArquivo = false;
+		for (Lote lote : aGravar) {
+			if (lote.segmento != segmentoDoCanal) {
+				// Os segmentos só mudam por rotação, então o lote começa com o cabeçalho de um segmento novo
+				fecharCanal();
+				canal = FileChannel.open(arquivo(lote.segmento), StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+				segmentoDoCanal = lote.segmento;
+				novoArquivo = true;
+			}
+			lote.gravar(canal);
+		}
+		if (canal != null) {
+			canal.force(false);
+		}
+		if (novoArquivo) {
+			sincronizarDiretorio();
+		}
+	}
+
+	/**
+	 * Acrescenta um registro ao segmento atual, iniciando um novo segmento caso o atual fique grande demais.
+	 * Exige a trava.
+	 */
+	private void anexar(Lote registro) {
+		if (bytesSegmentoAtual + registro.tamanho > tamanhoSegmento && bytesSegmentoAtual > TAMANHO_CABECALHO) {
+			segmentoAtual++;
+			Lote cabecalho = new Lote(segmentoAtual, Math.max(TAMANHO_CABECALHO + registro.tamanho, 256));
+			cabecalho.escreverCabecalho(segmentoAtual, impressaoCatalogo);
+			lotes.addLast(cabecalho);
+			bytesSegmentoAtual = TAMANHO_CABECALHO;
+			descartarSegmentosConsumidos();
+		}
+		Lote lote = lotes.peekLast();
+		if (lote == null || lote.segmento != segmentoAtual) {
+			lote = new Lote(segmentoAtual, Math.max(registro.tamanho, 256));
+			lotes.addLast(lote);
+		}
+		lote.escrever(registro);
+		bytesSegmentoAtual += registro.tamanho;
+		registrosAnexados++;
+	}
+
+	/**
+	 * Libera, a partir do mais antigo, os segmentos anteriores ao atual sem pedidos pendentes.
+	 * Os segmentos são apagados apenas em ordem: um registro de consumo pode estar em um segmento
+	 * posterior ao do pedido, e não pode desaparecer enquanto o pedido ainda estiver gravado.
+	 * Exige a trava.
+	 */
+	private void descartarSegmentosConsumidos() {
+		while (primeiroSegmento < segmentoAtual && !pendentesPorSegmento.containsKey(primeiroSegmento)) {
+			segmentosDescartados.add(primeiroSegmento);
+			primeiroSegmento++;
+		}
+	}
+
+	/**
+	 * Relê os segmentos existentes, em ordem, recriando os pedidos pendentes e avançando o contador de pedidos.
+	 * Os pedidos só são recriados depois de todos os segmentos lidos, pois um pedido consumido
+	 * não precisa ter seus produtos no catálogo atual. Pedidos pendentes com produtos que não estão
+	 * no catálogo atual são descartados; a compactação feita na abertura os remove do diário.
+	 * Arquivos temporários de uma compactação interrompida são apagados.
+	 * @return O número do último segmento encontrado (0, caso não haja nenhum)
+	 */
+	private int reler() throws IOException {
+		List<Integer> segmentos = new ArrayList<>();
+		try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio)) {
+			for (Path arquivo : arquivos) {
+				String nome = arquivo.getFileName().toString();
+				if (nome.endsWith(EXTENSAO_TEMPORARIO)) {
+					Files.deleteIfExists(arquivo);
+				} else if (nome.matches("\\d{8}" + EXTENSAO_SEGMENTO)) {
+					segmentos.add(Integer.parseInt(nome.substring(0, 8)));
+				}
+			}
+		}
+		Collections.sort(segmentos);
+		primeiroSegmento = segmentos.isEmpty() ? 0 : segmentos.get(0);
+
+		LinkedHashMap<Integer, PedidoGravado> gravados = new LinkedHashMap<>();
+		for (int segmento : segmentos) {
+			ByteBuffer dados = ByteBuffer.wrap(Files.readAllBytes(arquivo(segmento)));
+			if (dados.remaining() < TAMANHO_CABECALHO) {
+				// Segmento criado, mas interrompido antes de o cabeçalho ser gravado
+				continue;
+			}
+			if (dados.getInt() != IDENTIFICADOR) {
+				throw new IOException("O arquivo " + arquivo(segmento) + " não é um segmento do diário de pedidos.");
+			}
+			short versao = dados.getShort();
+			if (versao != VERSAO) {
+				throw new IOException("Versão " + versao + " do diário de pedidos não suportada.");
+			}
+			dados.getInt();
+			Pedido.avancarID(dados.getInt());
+			boolean mesmoCatalogo = dados.getLong() == impressaoCatalogo;
+			relerRegistros(dados, mesmoCatalogo, gravados);
+		}
+
+		int deOutroCatalogo = 0;
+		for (PedidoGravado gravado : gravados.values()) {
+			int[] linhas = new int[gravado.idsProdutos.length];
+			int ausente = -1;
+			for (int i = 0; i < linhas.length && ausente < 0; i++) {
+				linhas[i] = catalogo.localizarLinha(gravado.idsProdutos[i]);
+				if (linhas[i] < 0) {
+					ausente = i;
+				}
+			}
+			if (ausente >= 0) {
+				System.err.println("Aviso: pedido " + gravado.idPedido + " do diário descartado: o produto "
+						+ gravado.idsProdutos[ausente] + " não está no catálogo de produtos em uso.");
+				continue;
+			}
+			if (!gravado.mesmoCatalogo) {
+				deOutroCatalogo++;
+			}
+			Pedido pedido = new Pedido(catalogo.catalogo(), gravado.idPedido, gravado.data, gravado.formaDePagamento);
+			for (int i = 0; i < linhas.length; i++) {
+				pedido.incluirLinha(linhas[i], gravado.quantidades[i]);
+			}
+			pendentes.put(gravado.idPedido, new Pendente(pedido, 0));
+		}
+		if (deOutroCatalogo > 0) {
+			System.err.println("Aviso: " + deOutroCatalogo + " pedido(s) do diário foram gravados com outro arquivo de produtos; "
+					+ "seus produtos foram localizados pelo código.");
+		}
+		return segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1);
+	}
+
+	private static void relerRegistros(ByteBuffer dados, boolean mesmoCatalogo, LinkedHashMap<Integer, PedidoGravado> gravados)
+			throws IOException {
+		CRC32 crc = new CRC32();
+		while (dados.remaining() >= TAMANHO_MOLDURA) {
+			int tamanho = dados.getInt();
+			int crcEsperado = dados.getInt();
+			if (tamanho < 1 || tamanho > dados.remaining()) {
+				return;
+			}
+			crc.reset();
+			crc.update(dados.array(), dados.position(), tamanho);
+			if ((int) crc.getValue() != crcEsperado) {
+				return;
+			}
+			ByteBuffer conteudo = dados.slice(dados.position(), tamanho);
+			dados.position(dados.position() + tamanho);
+
+			byte tipo = conteudo.get();
+			if (tipo == TIPO_FINALIZADO) {
+				PedidoGravado gravado = new PedidoGravado(conteudo, mesmoCatalogo);
+				gravados.put(gravado.idPedido, gravado);
+				Pedido.avancarID(gravado.idPedido + 1);
+			} else if (tipo == TIPO_CONSUMIDO) {
+				int idPedido = conteudo.getInt();
+				gravados.remove(idPedido);
+				Pedido.avancarID(idPedido + 1);
+			} else {
+				throw new IOException("Tipo de registro desconhecido no diário de pedidos: " + tipo);
+			}
+		}
+	}
+
+	private static Lote registroFinalizado(Pedido pedido) {
+		int itens = pedido.getQuantosItens();
+		Lote registro = new Lote(TAMANHO_MOLDURA + TAMANHO_FIXO_FINALIZADO + itens * TAMANHO_ITEM);
+		registro.iniciarRegistro();
+		registro.escreverByte(TIPO_FINALIZADO);
+		registro.escreverInt(pedido.getIdPedido());
+		registro.escreverInt((int) pedido.getDataPedido().toEpochDay());
+		registro.escreverByte((byte) pedido.getFormaDePagamento());
+		registro.escreverInt(itens);
+		for (int i = 0; i < itens; i++) {
+			registro.escreverInt(pedido.getIdProduto(i));
+			registro.escreverInt(pedido.getQuantidade(i));
+		}
+		registro.concluirRegistro();
+		return registro;
+	}
+
+	private Path arquivo(int segmento) {
+		return diretorio.resolve(String.format("%08d", segmento) + EXTENSAO_SEGMENTO);
+	}
+
+	/**
+	 * Sincroniza o diretório, para que a criação ou a troca de nome de um segmento também sobreviva a uma parada.
+	 * Nem todos os sistemas permitem abrir um diretório; nesses, a sincronização é omitida.
+	 */
+	private void sincronizarDiretorio() {
+		try (FileChannel dir = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// Sem suporte à sincronização de diretórios
+		}
+	}
+
+	private void fecharCanal() throws IOException {
+		if (canal != null) {
+			canal.force(false);
+			canal.close();
+			canal = null;
+		}
+	}
+
+	private void verificarDisponivel() throws IOException {
+		if (fechado) {
+			throw new IllegalStateException("O diário de pedidos está fechado.");
+		}
+		if (falha != null) {
+			throw new IOException("O diário de pedidos está indisponível após uma falha de gravação.", falha);
+		}
+	}
+
+	/**
+	 * Conteúdo de um registro de pedido finalizado, como lido do diário.
+	 */
+	private static class PedidoGravado {
+
+		final int idPedido;
+		final LocalDate data;
+		final int formaDePagamento;
+		final int[] idsProdutos;
+		final int[] quantidades;
+		/** Indica se o segmento do registro foi gravado com o catálogo em uso */
+		final boolean mesmoCatalogo;
+
+		PedidoGravado(ByteBuffer conteudo, boolean mesmoCatalogo) {
+			idPedido = conteudo.getInt();
+			data = LocalDate.ofEpochDay(conteudo.getInt());
+			formaDePagamento = conteudo.get();
+			int itens = conteudo.getInt();
+			idsProdutos = new int[itens];
+			quantidades = new int[itens];
+			for (int i = 0; i < itens; i++) {
+				idsProdutos[i] = conteudo.getInt();
+				quantidades[i] = conteudo.getInt();
+			}
+			this.mesmoCatalogo = mesmoCatalogo;
+		}
+	}
+
+	/**
+	 * Pedido finalizado e ainda não consumido, com o segmento onde seu registro está gravado.
+	 */
+	private static class Pendente {
+
+		final Pedido pedido;
+		int segmento;
+
+		Pendente(Pedido pedido, int segmento) {
+			this.pedido = pedido;
+			this.segmento = segmento;
+		}
+	}
+
+	/**
+	 * Vetor de bytes que cresce por duplicação, em big-endian: guarda um registro isolado ou
+	 * uma sequência de registros a gravar em um mesmo segmento.
+	 */
+	private static class Lote {
+
+		final int segmento;
+		byte[] dados;
+		int tamanho;
+		private int inicioRegistro;
+
+		Lote(int capacidade) {
+			this(0, capacidade);
+		}
+
+		Lote(int segmento, int capacidade) {
+			this.segmento = segmento;
+			this.dados = new byte[capacidade];
+		}
+
+		void escreverCabecalho(int numeroSegmento, long impressaoCatalogo) {
+			escreverInt(IDENTIFICADOR);
+			garantir(2);
+			dados[tamanho++] = (byte) (VERSAO >>> 8);
+			dados[tamanho++] = (byte) VERSAO;
+			escreverInt(numeroSegmento);
+			escreverInt(Pedido.proximoID());
+			escreverInt((int) (impressaoCatalogo >>> 32));
+			escreverInt((int) impressaoCatalogo);
+		}
+
+		/** Reserva o espaço da moldura (tamanho e CRC32) de um registro */
+		void iniciarRegistro() {
+			inicioRegistro = tamanho;
+			escreverInt(0);
+			escreverInt(0);
+		}
+
+		/** Preenche a moldura do registro iniciado com o tamanho e o CRC32 do conteúdo escrito depois dela */
+		void concluirRegistro() {
+			int conteudo = inicioRegistro + TAMANHO_MOLDURA;
+			CRC32 crc = new CRC32();
+			crc.update(dados, conteudo, tamanho - conteudo);
+			ByteBuffer moldura = ByteBuffer.wrap(dados, inicioRegistro, TAMANHO_MOLDURA);
+			moldura.putInt(tamanho - conteudo);
+			moldura.putInt((int) crc.getValue());
+		}
+
+		void escreverByte(byte valor) {
+			garantir(1);
+			dados[tamanho++] = valor;
+		}
+
+		void escreverInt(int valor) {
+			garantir(4);
+			dados[tamanho++] = (byte) (valor >>> 24);
+			dados[tamanho++] = (byte) (valor >>> 16);
+			dados[tamanho++] = (byte) (valor >>> 8);
+			dados[tamanho++] = (byte) valor;
+		}
+
+		void escrever(Lote outro) {
+			garantir(outro.tamanho);
+			System.arraycopy(outro.dados, 0, dados, tamanho, outro.tamanho);
+			tamanho += outro.tamanho;
+		}
+
+		void gravar(FileChannel destino) throws IOException {
+			ByteBuffer bytes = ByteBuffer.wrap(dados, 0, tamanho);
+			while (bytes.hasRemaining()) {
+				destino.write(bytes);
+			}
+		}
+
+		private void garantir(int adicionais) {
+			if (tamanho + adicionais > dados.length) {
+				dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + adicionais));
+			}
+		}
+	}
+}
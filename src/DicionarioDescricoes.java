@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Dicionário das descrições do catálogo em colunas. As descrições combinam poucas palavras
+ * (nomes de itens e de cores), então cada palavra distinta é guardada uma única vez e cada
+ * descrição passa a ser uma sequência de códigos de palavras, armazenada em um único vetor de int:
+ * na posição da descrição fica a quantidade de palavras, seguida dos seus códigos.
+ * O texto da descrição só é montado quando pedido.
+ *
+ * Cada palavra também tem o código da sua forma em minúsculas, guardada uma única vez: comparar
+ * descrições sem diferenciar maiúsculas e minúsculas compara inteiros e, quando diferem, as formas
+ * em minúsculas já prontas, sem montar nem converter textos. Na comparação, as descrições são
+ * consideradas sem os espaços das pontas, como em IndiceDescricoes.normalizar.
+ *
+ * Assim como o ProdutoStore, o dicionário recebe descrições de uma thread de cada vez; os vetores ficam
+ * em um objeto substituído por uma cópia maior quando enche, então uma descrição já publicada pelo
+ * catálogo pode ser lida por outras threads sem trava.
+ */
+public class DicionarioDescricoes {
+
+	private static final char SEPARADOR = ' ';
+
+	/** Código de cada palavra e de cada forma em minúsculas; usados apenas por quem codifica */
+	private final HashMap<String, Integer> codigosPalavras = new HashMap<>();
+	private final HashMap<String, Integer> codigosMinusculas = new HashMap<>();
+
+	private volatile Vetores vetores = new Vetores(new String[64], new int[64], new String[64], new int[256]);
+	private int quantidadePalavras;
+	private int tamanhoSequencia;
+
+	/**
+	 * Codifica a descrição e a guarda no dicionário.
+	 * @param descricao Descrição a ser guardada
+	 * @return Código da descrição (sua posição na sequência), usado nas demais operações
+	 */
+	int codificar(String descricao) {
+		int posicao = tamanhoSequencia;
+		adicionarNaSequencia(0);
+		int palavras = 0;
+		int inicio = 0;
+		while (true) {
+			int fim = descricao.indexOf(SEPARADOR, inicio);
+			if (fim < 0) {
+				fim = descricao.length();
+			}
+			adicionarNaSequencia(codigoPalavra(descricao.substring(inicio, fim)));
+			palavras++;
+			if (fim == descricao.length()) {
+				break;
+			}
+			inicio = fim + 1;
+		}
+		vetores.sequencia[posicao] = palavras;
+		return posicao;
+	}
+
+	/**
+	 * Monta o texto da descrição.
+	 * @param descricao Código da descrição
+	 */
+	String decodificar(int descricao) {
+		Vetores atuais = vetores;
+		int palavras = atuais.sequencia[descricao];
+		if (palavras == 1) {
+			return atuais.palavras[atuais.sequencia[descricao + 1]];
+		}
+		StringBuilder texto = new StringBuilder();
+		for (int i = 1; i <= palavras; i++) {
+			if (i > 1) {
+				texto.append(SEPARADOR);
+			}
+			texto.append(atuais.palavras[atuais.sequencia[descricao + i]]);
+		}
+		return texto.toString();
+	}
+
+	/**
+	 * Compara duas descrições sem diferenciar maiúsculas e minúsculas, palavra a palavra.
+	 * Palavras com o mesmo código em minúsculas são iguais sem comparar textos.
+	 * @return Negativo, zero ou positivo, conforme a primeira descrição venha antes, seja igual ou venha depois
+	 */
+	int comparar(int descricao, int outra) {
+		Vetores atuais = vetores;
+		int inicio = primeiraPalavra(atuais, descricao), fim = ultimaPalavra(atuais, descricao);
+		int inicioOutra = primeiraPalavra(atuais, outra), fimOutra = ultimaPalavra(atuais, outra);
+		while (inicio < fim && inicioOutra < fimOutra) {
+			int minuscula = atuais.minusculas[atuais.sequencia[inicio++]];
+			int minusculaOutra = atuais.minusculas[atuais.sequencia[inicioOutra++]];
+			if (minuscula != minusculaOutra) {
+				return atuais.textosMinusculos[minuscula].compareTo(atuais.textosMinusculos[minusculaOutra]);
+			}
+		}
+		return Integer.compare(fim - inicio, fimOutra - inicioOutra);
+	}
+
+	/**
+	 * Compara a descrição com as palavras de uma consulta já normalizada, sem diferenciar maiúsculas e minúsculas,
+	 * com a mesma ordem de comparar(int, int).
+	 * @param consulta Palavras da consulta, em minúsculas (ver separarConsulta)
+	 */
+	int comparar(int descricao, String[] consulta) {
+		Vetores atuais = vetores;
+		int inicio = primeiraPalavra(atuais, descricao), fim = ultimaPalavra(atuais, descricao);
+		int i = 0;
+		while (inicio < fim && i < consulta.length) {
+			int comparacao = atuais.textosMinusculos[atuais.minusculas[atuais.sequencia[inicio++]]].compareTo(consulta[i++]);
+			if (comparacao != 0) {
+				return comparacao;
+			}
+		}
+		return Integer.compare(fim - inicio, consulta.length - i);
+	}
+
+	/**
+	 * Verifica se a descrição começa com a consulta, sem diferenciar maiúsculas e minúsculas: as palavras
+	 * da consulta são iguais às primeiras da descrição, exceto a última, que pode ser apenas o início da palavra.
+	 * @param consulta Palavras da consulta, em minúsculas (ver separarConsulta)
+	 */
+	boolean comecaCom(int descricao, String[] consulta) {
+		Vetores atuais = vetores;
+		int inicio = primeiraPalavra(atuais, descricao), fim = ultimaPalavra(atuais, descricao);
+		if (fim - inicio < consulta.length) {
+			return false;
+		}
+		for (int i = 0; i < consulta.length; i++) {
+			String palavra = atuais.textosMinusculos[atuais.minusculas[atuais.sequencia[inicio + i]]];
+			if (i < consulta.length - 1 ? !palavra.equals(consulta[i]) : !palavra.startsWith(consulta[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Separa uma consulta em palavras, normalizadas como as descrições são comparadas:
+	 * sem espaços nas pontas e em minúsculas.
+	 */
+	static String[] separarConsulta(String consulta) {
+		return consulta.trim().toLowerCase(Locale.ROOT).split(String.valueOf(SEPARADOR), -1);
+	}
+
+	int quantidadePalavras() {
+		return quantidadePalavras;
+	}
+
+	/**
+	 * Posição na sequência da primeira palavra da descrição, desconsiderando palavras vazias no início
+	 * (espaços nas pontas).
+	 */
+	private static int primeiraPalavra(Vetores atuais, int descricao) {
+		int inicio = descricao + 1, fim = descricao + 1 + atuais.sequencia[descricao];
+		while (inicio < fim && atuais.palavras[atuais.sequencia[inicio]].isEmpty()) {
+			inicio++;
+		}
+		return inicio;
+	}
+
+	/**
+	 * Posição na sequência logo após a última palavra da descrição, desconsiderando palavras vazias no fim.
+	 */
+	private static int ultimaPalavra(Vetores atuais, int descricao) {
+		int inicio = descricao + 1, fim = descricao + 1 + atuais.sequencia[descricao];
+		while (fim > inicio && atuais.palavras[atuais.sequencia[fim - 1]].isEmpty()) {
+			fim--;
+		}
+		return fim;
+	}
+
+	private int codigoPalavra(String palavra) {
+		Integer codigo = codigosPalavras.get(palavra);
+		if (codigo != null) {
+			return codigo;
+		}
+		String minuscula = palavra.toLowerCase(Locale.ROOT);
+		Integer codigoMinuscula = codigosMinusculas.get(minuscula);
+		Vetores atuais = vetores;
+		if (codigoMinuscula == null) {
+			codigoMinuscula = codigosMinusculas.size();
+			if (codigoMinuscula == atuais.textosMinusculos.length) {
+				atuais = new Vetores(atuais.palavras, atuais.minusculas,
+						Arrays.copyOf(atuais.textosMinusculos, codigoMinuscula * 2), atuais.sequencia);
+				vetores = atuais;
+			}
+			atuais.textosMinusculos[codigoMinuscula] = minuscula;
+			codigosMinusculas.put(minuscula, codigoMinuscula);
+		}
+		int novo = quantidadePalavras;
+		if (novo == atuais.palavras.length) {
+			atuais = new Vetores(Arrays.copyOf(atuais.palavras, novo * 2), Arrays.copyOf(atuais.minusculas, novo * 2),
+					atuais.textosMinusculos, atuais.sequencia);
+			vetores = atuais;
+		}
+		atuais.palavras[novo] = palavra;
+		atuais.minusculas[novo] = codigoMinuscula;
+		codigosPalavras.put(palavra, novo);
+		quantidadePalavras++;
+		return novo;
+	}
+
+	private void adicionarNaSequencia(int codigo) {
+		Vetores atuais = vetores;
+		if (tamanhoSequencia == atuais.sequencia.length) {
+			atuais = new Vetores(atuais.palavras, atuais.minusculas, atuais.textosMinusculos,
+					Arrays.copyOf(atuais.sequencia, tamanhoSequencia * 2));
+			vetores = atuais;
+		}
+		atuais.sequencia[tamanhoSequencia++] = codigo;
+	}
+
+	/**
+	 * Vetores do dicionário; quando um deles enche, o dicionário passa a usar um novo objeto com uma cópia maior.
+	 */
+	private static final class Vetores {
+
+		/** Palavras distintas, indexadas pelo seu código */
+		final String[] palavras;
+		/** Para cada palavra, o código da sua forma em minúsculas */
+		final int[] minusculas;
+		/** Formas em minúsculas distintas, indexadas pelo seu código */
+		final String[] textosMinusculos;
+		/** Descrições codificadas, em sequência: quantidade de palavras seguida dos códigos das palavras */
+		final int[] sequencia;
+
+		Vetores(String[] palavras, int[] minusculas, String[] textosMinusculos, int[] sequencia) {
+			this.palavras = palavras;
+			this.minusculas = minusculas;
+			this.textosMinusculos = textosMinusculos;
+			this.sequencia = sequencia;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operações sobre valores monetários em ponto fixo: quantias em centavos e taxas (margens, descontos)
+ * em pontos-base (1 ponto-base = 0,01%), ambos guardados em long.
+ * A aritmética é exata e não cria objetos; os arredondamentos seguem a regra HALF_UP
+ * (metades são arredondadas para longe do zero), como no arredondamento comercial.
+ * Apenas a conversão a partir de double, usada pelos construtores públicos de Produto, passa por BigDecimal;
+ * a carga do catálogo lê os valores do texto direto em centavos e pontos-base (ver LeitorCatalogo).
+ */
+public final class Dinheiro {
+
+	public static final long CENTAVOS_POR_REAL = 100;
+	public static final long PONTOS_BASE_POR_UNIDADE = 10_000;
+
+	private Dinheiro() {
+	}
+
+	/**
+	 * Converte uma quantia em reais para centavos, arredondando HALF_UP para o centavo mais próximo.
+	 * O arredondamento é feito sobre o decimal que o double representa (o mesmo texto que foi lido dos
+	 * dados, como 1.005), e não sobre sua aproximação binária. Usado apenas nas pontas que recebem double.
+	 * @throws ArithmeticException caso o valor não caiba em um long
+	 */
+	public static long centavos(double reais) {
+		return arredondar(reais, 2);
+	}
+
+	/**
+	 * Converte uma taxa (0.15 para 15%) para pontos-base, arredondando HALF_UP para o ponto-base mais próximo.
+	 * @throws ArithmeticException caso o valor não caiba em um long
+	 */
+	public static long pontosBase(double taxa) {
+		return arredondar(taxa, 4);
+	}
+
+	/**
+	 * Converte uma quantia em centavos para reais.
+	 */
+	public static double reais(long centavos) {
+		return (double) centavos / CENTAVOS_POR_REAL;
+	}
+
+	/**
+	 * Converte uma taxa em pontos-base para a forma decimal (1500 para 0.15).
+	 */
+	public static double taxa(long pontosBase) {
+		return (double) pontosBase / PONTOS_BASE_POR_UNIDADE;
+	}
+
+	/**
+	 * Retorna a quantia multiplicada por (1 + taxa), arredondada para o centavo.
+	 * @param centavos Quantia em centavos
+	 * @param pontosBase Taxa de acréscimo em pontos-base (negativa para um desconto)
+	 * @throws ArithmeticException em caso de estouro
+	 */
+	public static long acrescentar(long centavos, long pontosBase) {
+		return multiplicar(centavos, PONTOS_BASE_POR_UNIDADE + pontosBase, PONTOS_BASE_POR_UNIDADE);
+	}
+
+	/**
+	 * Retorna a quantia com o desconto aplicado, arredondada para o centavo.
+	 * @param centavos Quantia em centavos
+	 * @param pontosBase Desconto em pontos-base
+	 * @throws ArithmeticException em caso de estouro
+	 */
+	public static long descontar(long centavos, long pontosBase) {
+		return acrescentar(centavos, -pontosBase);
+	}
+
+	/**
+	 * Retorna quantia * numerador / denominador, arredondado HALF_UP.
+	 * @param denominador Denominador (positivo)
+	 * @throws ArithmeticException em caso de estouro
+	 */
+	public static long multiplicar(long quantia, long numerador, long denominador) {
+		return dividir(Math.multiplyExact(quantia, numerador), denominador);
+	}
+
+	/**
+	 * Retorna dividendo / divisor, arredondado HALF_UP.
+	 * @param divisor Divisor (positivo)
+	 */
+	public static long dividir(long dividendo, long divisor) {
+		long quociente = dividendo / divisor;
+		long resto = dividendo % divisor;
+		if (Math.abs(resto) * 2 >= divisor) {
+			quociente += Long.signum(dividendo);
+		}
+		return quociente;
+	}
+
+	/**
+	 * Formata a quantia com duas casas decimais e ponto como separador (por exemplo, "1234.56"),
+	 * o mesmo formato usado nos dados em texto dos produtos.
+	 */
+	public static String formatar(long centavos) {
+		long absoluto = Math.abs(centavos);
+		long parteInteira = absoluto / CENTAVOS_POR_REAL;
+		int parteDecimal = (int) (absoluto % CENTAVOS_POR_REAL);
+		StringBuilder texto = new StringBuilder(24);
+		if (centavos < 0) {
+			texto.append('-');
+		}
+		texto.append(parteInteira).append('.');
+		if (parteDecimal < 10) {
+			texto.append('0');
+		}
+		return texto.append(parteDecimal).toString();
+	}
+
+	/**
+	 * Multiplica o valor por 10^casas e arredonda HALF_UP para o inteiro mais próximo.
+	 * BigDecimal.valueOf parte da representação decimal mais curta do double, então 1.005 é tratado
+	 * exatamente como 1.005, e não como 1.00499999999999989... da sua aproximação binária.
+	 */
+	private static long arredondar(double valor, int casas) {
+		if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+			throw new ArithmeticException("Valor fora dos limites: " + valor);
+		}
+		return BigDecimal.valueOf(valor).movePointRight(casas).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+}
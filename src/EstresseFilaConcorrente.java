@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de estresse da FilaConcorrente: vários produtores e consumidores usam a mesma fila ao mesmo tempo,
+ * alternando operações individuais (inserir/remover) e em lote (inserirTodos/drenarPara).
+ * Ao final, verifica que cada item foi removido exatamente uma vez (nenhum perdido, nenhum duplicado)
+ * e que cada consumidor recebeu os itens de cada produtor na ordem em que foram inseridos.
+ *
+ * Uso: java EstresseFilaConcorrente [produtores] [consumidores] [itens por produtor]
+ * Termina com código 1 caso alguma verificação falhe.
+ */
+public class EstresseFilaConcorrente {
+
+    private static final int TAMANHO_LOTE = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int produtores = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int consumidores = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int itensPorProdutor = (args.length > 2) ? Integer.parseInt(args[2]) : 200_000;
+        int total = produtores * itensPorProdutor;
+
+        FilaConcorrente<Integer> fila = new FilaConcorrente<>();
+        AtomicIntegerArray recebidos = new AtomicIntegerArray(total);
+        AtomicLong removidos = new AtomicLong();
+        List<String> falhas = new ArrayList<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < produtores; p++) {
+            int produtor = p;
+            threads.add(new Thread(() -> {
+                aguardar(largada);
+                Integer[] lote = new Integer[TAMANHO_LOTE];
+                int i = 0;
+                while (i < itensPorProdutor) {
+                    // Alterna inserções individuais e em lote, para que as duas disputem o fim da fila
+                    if ((i / TAMANHO_LOTE) % 2 == 0) {
+                        fila.inserir(produtor * itensPorProdutor + i);
+                        i++;
+                    } else {
+                        int quantidade = Math.min(TAMANHO_LOTE, itensPorProdutor - i);
+                        for (int j = 0; j < quantidade; j++) {
+                            lote[j] = produtor * itensPorProdutor + i + j;
+                        }
+                        fila.inserirTodos(lote, 0, quantidade);
+                        i += quantidade;
+                    }
+                }
+            }, "produtor-" + p));
+        }
+
+        for (int c = 0; c < consumidores; c++) {
+            int consumidor = c;
+            threads.add(new Thread(() -> {
+                aguardar(largada);
+                // Último item recebido de cada produtor, para verificar a ordem
+                int[] ultimoDoProdutor = new int[produtores];
+                Arrays.fill(ultimoDoProdutor, -1);
+                Integer[] lote = new Integer[TAMANHO_LOTE];
+                long operacao = 0;
+                while (removidos.get() < total) {
+                    int quantidade;
+                    if (operacao++ % 2 == 0) {
+                        try {
+                            lote[0] = fila.remover();
+                            quantidade = 1;
+                        } catch (NoSuchElementException e) {
+                            quantidade = 0;
+                        }
+                    } else {
+                        quantidade = fila.drenarPara(lote, lote.length);
+                    }
+                    if (quantidade == 0) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    removidos.addAndGet(quantidade);
+                    for (int j = 0; j < quantidade; j++) {
+                        int item = lote[j];
+                        int produtor = item / itensPorProdutor;
+                        if (item <= ultimoDoProdutor[produtor]) {
+                            registrarFalha(falhas, "consumidor-" + consumidor + " recebeu " + item
+                                    + " depois de " + ultimoDoProdutor[produtor]);
+                        }
+                        ultimoDoProdutor[produtor] = item;
+                        recebidos.incrementAndGet(item);
+                    }
+                }
+            }, "consumidor-" + c));
+        }
+
+        long inicio = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        int perdidos = 0;
+        int duplicados = 0;
+        for (int i = 0; i < total; i++) {
+            int vezes = recebidos.get(i);
+            if (vezes == 0) {
+                perdidos++;
+            } else if (vezes > 1) {
+                duplicados++;
+            }
+        }
+        if (perdidos > 0) {
+            registrarFalha(falhas, perdidos + " itens perdidos");
+        }
+        if (duplicados > 0) {
+            registrarFalha(falhas, duplicados + " itens duplicados");
+        }
+        if (!fila.vazia() || fila.size() != 0) {
+            registrarFalha(falhas, "a fila não terminou vazia (size = " + fila.size() + ")");
+        }
+
+        System.out.println(produtores + " produtores, " + consumidores + " consumidores, " + total
+                + " itens em " + milissegundos + " ms.");
+        if (falhas.isEmpty()) {
+            System.out.println("OK: nenhum item perdido ou duplicado; ordem por produtor preservada.");
+        } else {
+            for (String falha : falhas.subList(0, Math.min(falhas.size(), 20))) {
+                System.out.println("FALHA: " + falha);
+            }
+            System.exit(1);
+        }
+    }
+
+    private static void aguardar(CountDownLatch largada) {
+        try {
+            largada.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void registrarFalha(List<String> falhas, String descricao) {
+        synchronized (falhas) {
+            falhas.add(descricao);
+        }
+    }
+}
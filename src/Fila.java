@@ -1,18 +1,49 @@
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.Iterator;
+import java.util.LongSummaryStatistics;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Objects;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Fila<E> {
+public class Fila<E> implements Iterable<E> {
+
+    /** Quantidade de itens transferidos por lote ao anexar filas de implementações diferentes */
+    private static final int TAMANHO_LOTE = 256;
 
     private Celula<E> frente;
     private Celula<E> tras;
     private int tamanho;
+    /** Células livres para reutilização; null quando a fila não reutiliza células */
+    private final ReservaCelulas<E> reserva;
 
     public Fila() {
+        this((ReservaCelulas<E>) null);
+    }
+
+    /**
+     * Cria uma fila que reutiliza as células dos itens removidos nas próximas inserções.
+     * Uma fila que se mantém com profundidade estável deixa de alocar memória a cada operação.
+     * @param tamanhoReserva Quantidade máxima de células livres guardadas para reutilização (mínimo 1)
+     */
+    public Fila(int tamanhoReserva) {
+        this(new ReservaCelulas<E>(tamanhoReserva));
+    }
+
+    private Fila(ReservaCelulas<E> reserva) {
         Celula<E> sentinela = new Celula<E>();
         frente = sentinela;
         tras = sentinela;
         tamanho = 0;
+        this.reserva = reserva;
     }
 
     public boolean vazia() {
@@ -20,7 +51,7 @@ public class Fila<E> {
     }
 
     public void inserir(E item) {
-        Celula<E> nova = new Celula<E>(item);
+        Celula<E> nova = novaCelula(item);
         tras.setProximo(nova);
         tras = nova;
         tamanho++;
@@ -42,9 +73,133 @@ public class Fila<E> {
         }
 
         tamanho--;
+        liberar(celulaRemovida);
         return itemRemovido;
     }
 
+    /**
+     * Insere, em ordem, todos os itens do vetor no fim da fila.
+     */
+    public void inserirTodos(E[] itens) {
+        inserirTodos(itens, 0, itens.length);
+    }
+
+    /**
+     * Insere, em ordem, todos os itens da coleção no fim da fila.
+     */
+    @SuppressWarnings("unchecked")
+    public void inserirTodos(Collection<? extends E> itens) {
+        Object[] vetor = itens.toArray();
+        inserirTodos((E[]) vetor, 0, vetor.length);
+    }
+
+    /**
+     * Insere, em ordem, um trecho do vetor no fim da fila. As células do lote são encadeadas entre si
+     * antes de serem ligadas à fila, que tem o fim e o tamanho atualizados uma única vez.
+     * @param itens Vetor com os itens
+     * @param inicio Posição do primeiro item a inserir
+     * @param quantidade Quantidade de itens a inserir
+     * @throws IndexOutOfBoundsException caso o trecho esteja fora dos limites do vetor
+     */
+    public void inserirTodos(E[] itens, int inicio, int quantidade) {
+        Objects.checkFromIndexSize(inicio, quantidade, itens.length);
+        if (quantidade == 0) {
+            return;
+        }
+        Celula<E> primeira = novaCelula(itens[inicio]);
+        Celula<E> ultima = primeira;
+        for (int i = inicio + 1; i < inicio + quantidade; i++) {
+            Celula<E> nova = novaCelula(itens[i]);
+            ultima.setProximo(nova);
+            ultima = nova;
+        }
+        tras.setProximo(primeira);
+        tras = ultima;
+        tamanho += quantidade;
+    }
+
+    /**
+     * Remove até maxItens itens do início da fila, copiando-os em ordem para o vetor de destino
+     * a partir da posição 0. A frente e o tamanho da fila são atualizados uma única vez.
+     * @param destino Vetor que recebe os itens removidos
+     * @param maxItens Quantidade máxima de itens a remover (limitada também ao tamanho do destino)
+     * @return A quantidade de itens removidos
+     * @throws IllegalArgumentException caso maxItens seja negativo
+     */
+    public int drenarPara(E[] destino, int maxItens) {
+        if (maxItens < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int removidos = Math.min(Math.min(maxItens, destino.length), tamanho);
+        if (removidos == 0) {
+            return 0;
+        }
+        Celula<E> atual = frente.getProximo();
+        for (int i = 0; i < removidos; i++) {
+            Celula<E> seguinte = atual.getProximo();
+            destino[i] = atual.getItem();
+            if (tras == atual) {
+                tras = frente;
+            }
+            liberar(atual);
+            atual = seguinte;
+        }
+        frente.setProximo(atual);
+        tamanho -= removidos;
+        return removidos;
+    }
+
+    /**
+     * Move todos os itens da outra fila para o fim desta, na mesma ordem, deixando a outra vazia.
+     * Quando as duas são filas encadeadas simples, as células da outra são ligadas ao fim desta em O(1),
+     * sem percorrê-las; nos demais casos, os itens são transferidos em lotes.
+     * @param outra Fila cujos itens serão movidos
+     * @throws IllegalArgumentException caso a outra fila seja esta mesma
+     */
+    public void anexar(Fila<? extends E> outra) {
+        if (outra == this) {
+            throw new IllegalArgumentException("Uma fila não pode ser anexada a ela mesma.");
+        }
+        if (getClass() == Fila.class && outra.getClass() == Fila.class) {
+            @SuppressWarnings("unchecked")
+            Fila<E> origem = (Fila<E>) outra;
+            if (origem.vazia()) {
+                return;
+            }
+            tras.setProximo(origem.frente.getProximo());
+            tras = origem.tras;
+            tamanho += origem.tamanho;
+
+            origem.frente.setProximo(null);
+            origem.tras = origem.frente;
+            origem.tamanho = 0;
+            return;
+        }
+        transferirEmLotes(outra, this);
+    }
+
+    private Celula<E> novaCelula(E item) {
+        return (reserva != null) ? reserva.obter(item, null) : new Celula<E>(item);
+    }
+
+    /**
+     * Devolve à reserva a célula que acabou de sair da fila, quando a fila reutiliza células.
+     */
+    private void liberar(Celula<E> celula) {
+        if (reserva != null) {
+            reserva.devolver(celula);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void transferirEmLotes(Fila<T> origem, Fila<? super T> destino) {
+        T[] lote = (T[]) new Object[TAMANHO_LOTE];
+        int transferidos;
+        while ((transferidos = origem.drenarPara(lote, lote.length)) > 0) {
+            destino.inserirTodos(lote, 0, transferidos);
+        }
+    }
+
     public E consultarInicio() {
         if (vazia()) {
             throw new NoSuchElementException("A fila está vazia!");
@@ -107,4 +262,122 @@ public class Fila<E> {
 
         return resultado;
     }
-}
\ No newline at end of file
+
+    /**
+     * Percorre os primeiros elementos da fila e entrega ao consumidor, em ordem, os que atendem à condição.
+     * Diferente de filtrar(condicional, quantidade), não cria uma nova fila: os elementos são
+     * entregues à medida que são encontrados, sem nenhuma alocação por elemento.
+     * @param condicional Condição que os elementos devem atender
+     * @param quantidade Quantidade de elementos, a partir do início, a considerar
+     * @param consumidor Ação executada para cada elemento que atende à condição
+     * @return A quantidade de elementos entregues ao consumidor
+     * @throws IllegalArgumentException caso a quantidade seja negativa
+     */
+    public int filtrar(Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int limiteTeste = Math.min(quantidade, this.size());
+
+        Celula<E> atual = frente.getProximo();
+        int contador = 0;
+        int entregues = 0;
+
+        while (atual != null && contador < limiteTeste) {
+            E item = atual.getItem();
+            if (condicional.test(item)) {
+                consumidor.accept(item);
+                entregues++;
+            }
+            atual = atual.getProximo();
+            contador++;
+        }
+
+        return entregues;
+    }
+
+    /**
+     * Resume a métrica dos primeiros elementos da fila (contagem, soma, média, mínimo e máximo) em um único
+     * percurso, sem criar objetos para os valores. O percurso usa filtrar com um consumidor, que cada
+     * implementação já faz da forma adequada (diretamente no vetor, sobre uma cópia tirada sob a trava etc.).
+     * Para contar os elementos cuja métrica passa de um limite, use filtrar com um consumidor vazio.
+     * @param metrica Métrica de cada elemento
+     * @param quantidade Quantidade de elementos, a partir do início, a considerar (entre 0 e size())
+     * @return Estatísticas da métrica (vazias, caso a quantidade seja 0)
+     * @throws IllegalArgumentException caso a quantidade esteja fora dos limites
+     */
+    public DoubleSummaryStatistics resumir(ToDoubleFunction<? super E> metrica, int quantidade) {
+        DoubleSummaryStatistics resumo = new DoubleSummaryStatistics();
+        percorrerPrimeiros(quantidade, item -> resumo.accept(metrica.applyAsDouble(item)));
+        return resumo;
+    }
+
+    /**
+     * Resume uma métrica inteira (centavos, contagens) dos primeiros elementos da fila, como resumir.
+     * O nome é distinto porque sobrecargas com ToDoubleFunction e ToLongFunction seriam ambíguas para lambdas.
+     * @throws IllegalArgumentException caso a quantidade não esteja entre 0 e size()
+     */
+    public LongSummaryStatistics resumirInteiros(ToLongFunction<? super E> metrica, int quantidade) {
+        LongSummaryStatistics resumo = new LongSummaryStatistics();
+        percorrerPrimeiros(quantidade, item -> resumo.accept(metrica.applyAsLong(item)));
+        return resumo;
+    }
+
+    private void percorrerPrimeiros(int quantidade, Consumer<? super E> acao) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        if (quantidade > this.size()) {
+            throw new IllegalArgumentException("A fila não contém " + quantidade + " elementos. Tamanho atual: " + this.size());
+        }
+        filtrar(item -> true, quantidade, acao);
+    }
+
+    /**
+     * Percorre os elementos da fila do início para o fim, sem removê-los.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Celula<E> atual = frente.getProximo();
+
+            @Override
+            public boolean hasNext() {
+                return atual != null;
+            }
+
+            @Override
+            public E next() {
+                if (atual == null) {
+                    throw new NoSuchElementException("Não há mais elementos na fila.");
+                }
+                E item = atual.getItem();
+                atual = atual.getProximo();
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Spliterator que conhece o tamanho da fila. Como as células só podem ser percorridas em sequência,
+     * cada divisão copia um lote crescente de elementos para um vetor, que é então dividido sem novas cópias.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Retorna um stream sequencial com os elementos da fila, do início para o fim.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Retorna um stream possivelmente paralelo com os elementos da fila, na ordem da fila.
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
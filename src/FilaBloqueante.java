@@ -0,0 +1,720 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Fila limitada e bloqueante, segura para uso por várias threads. Possui capacidade fixa:
+ * quando está cheia, os produtores aguardam (ou desistem) até que os consumidores removam itens,
+ * o que impede que uma rajada de inserções consuma toda a memória.
+ * Os itens ficam em um vetor circular protegido por uma única trava.
+ * Opcionalmente, registra uma métrica de cada item no momento da inserção e mantém suas somas
+ * acumuladas, para obter a soma e a média dos N primeiros itens sem percorrer a fila.
+ * Se a métrica variar com o tempo (como o valor de um pedido, que muda com o dia do relógio de preços),
+ * a fila pode receber a versão atual da métrica: quando ela muda, as somas são refeitas na consulta seguinte.
+ */
+public class FilaBloqueante<E> extends Fila<E> {
+
+    private final Object[] itens;
+    private int inicio;
+    private int tamanho;
+    /** Posições reservadas por anexações em andamento, ainda não ocupadas pelos itens */
+    private int reservadas;
+
+    /** Trava que protege a fila; as subclasses a usam para consultar seus próprios dados */
+    protected final ReentrantLock trava;
+    private final Condition naoVazia;
+    private final Condition naoCheia;
+
+    private final ToDoubleFunction<? super E> metrica;
+    private final SomasPrefixadas somas;
+    /** Versão atual da métrica (null se ela não variar) e a versão com que as somas foram calculadas */
+    private final LongSupplier versaoMetrica;
+    private long versaoSomas;
+
+    /**
+     * Cria a fila com a capacidade informada.
+     * @param capacidade Quantidade máxima de itens na fila (mínimo 1)
+     */
+    public FilaBloqueante(int capacidade) {
+        this(capacidade, null);
+    }
+
+    /**
+     * Cria a fila com a capacidade informada, agregando a métrica informada.
+     * A métrica é aplicada uma única vez a cada item, no momento da inserção, e os valores assim
+     * obtidos não são mais atualizados.
+     * @param capacidade Quantidade máxima de itens na fila (mínimo 1)
+     * @param metrica Métrica a ser agregada, ou null para não agregar
+     */
+    public FilaBloqueante(int capacidade, ToDoubleFunction<? super E> metrica) {
+        this(capacidade, metrica, null);
+    }
+
+    /**
+     * Cria a fila com a capacidade informada, agregando uma métrica que varia com o tempo.
+     * A métrica é aplicada a cada item no momento da inserção; quando a versão informada muda,
+     * ela é reaplicada a todos os itens da fila (em O(n)) antes da consulta seguinte às somas.
+     * @param capacidade Quantidade máxima de itens na fila (mínimo 1)
+     * @param metrica Métrica a ser agregada, ou null para não agregar
+     * @param versaoMetrica Versão atual da métrica (por exemplo, o dia do relógio de preços), ou null caso ela não varie
+     */
+    public FilaBloqueante(int capacidade, ToDoubleFunction<? super E> metrica, LongSupplier versaoMetrica) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("A capacidade deve ser um número positivo.");
+        }
+        itens = new Object[capacidade];
+        inicio = 0;
+        tamanho = 0;
+        reservadas = 0;
+        trava = new ReentrantLock();
+        naoVazia = trava.newCondition();
+        naoCheia = trava.newCondition();
+        this.metrica = metrica;
+        somas = (metrica != null) ? new SomasPrefixadas(capacidade) : null;
+        this.versaoMetrica = (metrica != null) ? versaoMetrica : null;
+        versaoSomas = (this.versaoMetrica != null) ? this.versaoMetrica.getAsLong() : 0;
+    }
+
+    public int capacidade() {
+        return itens.length;
+    }
+
+    @Override
+    public boolean vazia() {
+        trava.lock();
+        try {
+            return tamanho == 0;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean cheia() {
+        trava.lock();
+        try {
+            return livres() == 0;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Insere o item sem aguardar.
+     * @throws IllegalStateException caso a fila esteja cheia.
+     */
+    @Override
+    public void inserir(E item) {
+        if (!tentarInserir(item)) {
+            throw new IllegalStateException("A fila está cheia! Capacidade: " + itens.length);
+        }
+    }
+
+    /**
+     * Insere o item sem aguardar.
+     * @return true/false indicando se havia espaço na fila para o item.
+     */
+    public boolean tentarInserir(E item) {
+        trava.lock();
+        try {
+            if (livres() == 0) {
+                return false;
+            }
+            enfileirar(item);
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Insere o item, aguardando o tempo que for necessário até haver espaço na fila.
+     * @throws InterruptedException caso a thread seja interrompida durante a espera.
+     */
+    public void inserirAguardando(E item) throws InterruptedException {
+        trava.lockInterruptibly();
+        try {
+            while (livres() == 0) {
+                naoCheia.await();
+            }
+            enfileirar(item);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Insere o item, aguardando no máximo o tempo informado até haver espaço na fila.
+     * @return true/false indicando se o item foi inserido dentro do prazo.
+     * @throws InterruptedException caso a thread seja interrompida durante a espera.
+     */
+    public boolean inserir(E item, long tempo, TimeUnit unidade) throws InterruptedException {
+        long restante = unidade.toNanos(tempo);
+        trava.lockInterruptibly();
+        try {
+            while (livres() == 0) {
+                if (restante <= 0) {
+                    return false;
+                }
+                restante = naoCheia.awaitNanos(restante);
+            }
+            enfileirar(item);
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Remove o primeiro item sem aguardar.
+     * @throws NoSuchElementException caso a fila esteja vazia.
+     */
+    @Override
+    public E remover() {
+        E removido;
+        trava.lock();
+        try {
+            if (tamanho == 0) {
+                throw new NoSuchElementException("A fila está vazia!");
+            }
+            removido = desenfileirar();
+        } finally {
+            trava.unlock();
+        }
+        aposRemover(removido);
+        return removido;
+    }
+
+    /**
+     * Remove o primeiro item sem aguardar.
+     * @return O item removido, ou null caso a fila esteja vazia.
+     */
+    public E tentarRemover() {
+        E removido;
+        trava.lock();
+        try {
+            if (tamanho == 0) {
+                return null;
+            }
+            removido = desenfileirar();
+        } finally {
+            trava.unlock();
+        }
+        aposRemover(removido);
+        return removido;
+    }
+
+    /**
+     * Remove o primeiro item, aguardando o tempo que for necessário até haver um item na fila.
+     * @throws InterruptedException caso a thread seja interrompida durante a espera.
+     */
+    public E removerAguardando() throws InterruptedException {
+        E removido;
+        trava.lockInterruptibly();
+        try {
+            while (tamanho == 0) {
+                naoVazia.await();
+            }
+            removido = desenfileirar();
+        } finally {
+            trava.unlock();
+        }
+        aposRemover(removido);
+        return removido;
+    }
+
+    /**
+     * Remove o primeiro item, aguardando no máximo o tempo informado até haver um item na fila.
+     * @return O item removido, ou null caso o prazo tenha se esgotado com a fila vazia.
+     * @throws InterruptedException caso a thread seja interrompida durante a espera.
+     */
+    public E remover(long tempo, TimeUnit unidade) throws InterruptedException {
+        long restante = unidade.toNanos(tempo);
+        E removido;
+        trava.lockInterruptibly();
+        try {
+            while (tamanho == 0) {
+                if (restante <= 0) {
+                    return null;
+                }
+                restante = naoVazia.awaitNanos(restante);
+            }
+            removido = desenfileirar();
+        } finally {
+            trava.unlock();
+        }
+        aposRemover(removido);
+        return removido;
+    }
+
+    /**
+     * Transfere todos os itens disponíveis para a fila de destino, sem aguardar.
+     * @return A quantidade de itens transferidos.
+     */
+    public int drenarPara(Fila<? super E> destino) {
+        return drenarPara(destino, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Transfere até maxItens itens disponíveis para a fila de destino, sem aguardar.
+     * O lote é retirado desta fila com a trava obtida uma única vez e inserido no destino depois
+     * que a trava é liberada, de modo que as travas das duas filas nunca ficam obtidas ao mesmo tempo.
+     * O destino não pode ser limitado: uma inserção recusada perderia itens que já saíram desta fila.
+     * Para mover itens para uma fila bloqueante, use anexar na fila de destino, que reserva o espaço antes.
+     * @return A quantidade de itens transferidos.
+     * @throws IllegalArgumentException caso o destino seja esta fila ou uma fila bloqueante
+     */
+    public int drenarPara(Fila<? super E> destino, int maxItens) {
+        if (destino == this) {
+            throw new IllegalArgumentException("A fila não pode ser drenada para ela mesma.");
+        }
+        if (destino instanceof FilaBloqueante) {
+            throw new IllegalArgumentException("O destino não pode ser uma fila limitada; use anexar na fila de destino.");
+        }
+        if (maxItens < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        Object[] lote;
+        trava.lock();
+        try {
+            lote = new Object[Math.min(maxItens, tamanho)];
+        } finally {
+            trava.unlock();
+        }
+        // Retira o lote por drenarPara(E[]), que obtém a trava e chama aposRemover depois de liberá-la
+        int transferidos = drenarDe(this, lote);
+        inserirEm(destino, lote, transferidos);
+        return transferidos;
+    }
+
+    /**
+     * Insere todo o trecho do vetor sem aguardar, obtendo a trava uma única vez.
+     * O lote é inserido por inteiro ou não é inserido.
+     * @throws IllegalStateException caso não haja espaço na fila para todo o lote.
+     */
+    @Override
+    public void inserirTodos(E[] novos, int posicao, int quantidade) {
+        Objects.checkFromIndexSize(posicao, quantidade, novos.length);
+        trava.lock();
+        try {
+            if (quantidade > livres()) {
+                throw new IllegalStateException("A fila não tem espaço para " + quantidade + " itens. Capacidade: "
+                        + itens.length + ", tamanho atual: " + tamanho);
+            }
+            enfileirarLote(novos, posicao, quantidade);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Remove até maxItens itens disponíveis para o vetor de destino, sem aguardar.
+     * A trava é obtida uma única vez para todo o lote.
+     */
+    @Override
+    public int drenarPara(E[] destino, int maxItens) {
+        if (maxItens < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int removidos;
+        trava.lock();
+        try {
+            removidos = Math.min(Math.min(maxItens, destino.length), tamanho);
+            for (int i = 0; i < removidos; i++) {
+                int posicao = (inicio + i) % itens.length;
+                @SuppressWarnings("unchecked")
+                E item = (E) itens[posicao];
+                itens[posicao] = null;
+                destino[i] = item;
+                aoRemover(item);
+            }
+            if (somas != null) {
+                somas.removerPrimeiros(removidos);
+            }
+            inicio = (inicio + removidos) % itens.length;
+            tamanho -= removidos;
+            if (removidos > 0) {
+                naoCheia.signalAll();
+            }
+        } finally {
+            trava.unlock();
+        }
+        if (removidos > 0) {
+            // O destino pode ser um Object[] visto como E[] (anexar, drenarPara(Fila)): é entregue como lista
+            aposRemover(Arrays.asList(destino).subList(0, removidos));
+        }
+        return removidos;
+    }
+
+    /**
+     * Move todos os itens da outra fila para o fim desta, sem aguardar.
+     * O espaço é reservado com a trava obtida; a outra fila é drenada com a trava já liberada,
+     * e a trava é obtida de novo apenas para publicar os itens. Assim esta fila nunca mantém a sua trava
+     * enquanto obtém a da outra, e duas filas bloqueantes podem ser anexadas uma à outra ao mesmo tempo.
+     * Se a outra fila crescer durante a transferência, apenas os itens que cabem na reserva são movidos.
+     * @throws IllegalStateException caso não haja espaço na fila para todos os itens da outra;
+     * nesse caso nenhum item é movido.
+     */
+    @Override
+    public void anexar(Fila<? extends E> outra) {
+        if (outra == this) {
+            throw new IllegalArgumentException("Uma fila não pode ser anexada a ela mesma.");
+        }
+        int reserva = outra.size();
+        trava.lock();
+        try {
+            if (reserva > livres()) {
+                throw new IllegalStateException("A fila não tem espaço para " + reserva + " itens. Capacidade: "
+                        + itens.length + ", tamanho atual: " + tamanho);
+            }
+            reservadas += reserva;
+        } finally {
+            trava.unlock();
+        }
+        @SuppressWarnings("unchecked")
+        E[] lote = (E[]) new Object[reserva];
+        int transferidos = 0;
+        try {
+            transferidos = drenarDe(outra, lote);
+        } finally {
+            trava.lock();
+            try {
+                reservadas -= reserva;
+                enfileirarLote(lote, 0, transferidos);
+                if (transferidos < reserva) {
+                    naoCheia.signalAll();
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de posições nem ocupadas nem reservadas. Deve ser chamado com a trava obtida.
+     */
+    private int livres() {
+        return itens.length - tamanho - reservadas;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int drenarDe(Fila<T> origem, Object[] destino) {
+        return origem.drenarPara((T[]) destino, destino.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void inserirEm(Fila<T> destino, Object[] lote, int quantidade) {
+        destino.inserirTodos((T[]) lote, 0, quantidade);
+    }
+
+    /**
+     * Retorna a soma da métrica agregada dos primeiros itens da fila, em O(1).
+     * @param quantidade Quantidade de itens, a partir do início da fila
+     * @throws IllegalStateException caso a fila não agregue nenhuma métrica
+     * @throws IllegalArgumentException caso a fila não contenha a quantidade informada
+     */
+    public double somaPrimeiros(int quantidade) {
+        exigirMetrica();
+        trava.lock();
+        try {
+            atualizarSomas();
+            return somas.soma(quantidade);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Retorna a média da métrica agregada dos primeiros itens da fila, em O(1).
+     * @param quantidade Quantidade de itens, a partir do início da fila
+     * @throws IllegalStateException caso a fila não agregue nenhuma métrica
+     * @throws IllegalArgumentException caso a fila não contenha a quantidade informada
+     */
+    public double mediaPrimeiros(int quantidade) {
+        exigirMetrica();
+        trava.lock();
+        try {
+            atualizarSomas();
+            return somas.media(quantidade);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean agregaMetrica() {
+        return metrica != null;
+    }
+
+    private void exigirMetrica() {
+        if (metrica == null) {
+            throw new IllegalStateException("A fila não foi criada com uma métrica agregada.");
+        }
+    }
+
+    @Override
+    public E consultarInicio() {
+        trava.lock();
+        try {
+            if (tamanho == 0) {
+                throw new NoSuchElementException("A fila está vazia!");
+            }
+            return item(0);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        trava.lock();
+        try {
+            return tamanho;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public double calcularValorMedio(Function<E, Double> extrator, int quantidade) {
+        trava.lock();
+        try {
+            if (quantidade <= 0) {
+                throw new IllegalArgumentException("A quantidade deve ser um número positivo.");
+            }
+            if (quantidade > tamanho) {
+                throw new IllegalArgumentException("A fila não contém " + quantidade + " elementos. Tamanho atual: " + tamanho);
+            }
+
+            double soma = 0.0;
+            for (int i = 0; i < quantidade; i++) {
+                Double valor = extrator.apply(item(i));
+                if (valor != null) {
+                    soma += valor;
+                }
+            }
+            return soma / quantidade;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public Fila<E> filtrar(Predicate<E> condicional, int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        trava.lock();
+        try {
+            int limiteTeste = Math.min(quantidade, tamanho);
+            Fila<E> resultado = new FilaCircular<>();
+            for (int i = 0; i < limiteTeste; i++) {
+                E item = item(i);
+                if (condicional.test(item)) {
+                    resultado.inserir(item);
+                }
+            }
+            return resultado;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Copia os primeiros itens com a trava obtida e só então os testa e entrega ao consumidor, já sem a trava:
+     * um consumidor lento (que imprime, por exemplo) não atrasa inserções e remoções.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int filtrar(Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        Object[] primeiros;
+        trava.lock();
+        try {
+            primeiros = new Object[Math.min(quantidade, tamanho)];
+            for (int i = 0; i < primeiros.length; i++) {
+                primeiros[i] = item(i);
+            }
+        } finally {
+            trava.unlock();
+        }
+        int entregues = 0;
+        for (Object item : primeiros) {
+            if (condicional.test((E) item)) {
+                consumidor.accept((E) item);
+                entregues++;
+            }
+        }
+        return entregues;
+    }
+
+    /**
+     * Percorre um retrato da fila tirado com a trava obtida; o percurso não bloqueia produtores
+     * e consumidores nem reflete alterações posteriores.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return Arrays.asList(retrato()).iterator();
+    }
+
+    /**
+     * Spliterator sobre um retrato da fila tirado com a trava obtida. Conhece o tamanho exato
+     * e se divide ao meio sem novas cópias.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Arrays.spliterator(retrato());
+    }
+
+    /**
+     * Copia os itens, do início para o fim, para um novo vetor.
+     */
+    @SuppressWarnings("unchecked")
+    private E[] retrato() {
+        trava.lock();
+        try {
+            Object[] copia = new Object[tamanho];
+            int primeiroBloco = Math.min(tamanho, itens.length - inicio);
+            System.arraycopy(itens, inicio, copia, 0, primeiroBloco);
+            System.arraycopy(itens, 0, copia, primeiroBloco, tamanho - primeiroBloco);
+            return (E[]) copia;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Chamado, com a trava obtida, logo após o item entrar na fila.
+     * Permite que subclasses mantenham estruturas auxiliares atualizadas.
+     */
+    protected void aoInserir(E item) {
+    }
+
+    /**
+     * Chamado, com a trava obtida, logo após o item sair da fila.
+     * Permite que subclasses mantenham estruturas auxiliares atualizadas.
+     */
+    protected void aoRemover(E item) {
+    }
+
+    /**
+     * Chamado depois que a trava é liberada, com o item que acabou de sair da fila por remover,
+     * tentarRemover, removerAguardando ou remover com prazo. Permite que subclasses façam trabalho demorado
+     * (como gravar em disco) sem atrasar as demais threads; outras operações podem ocorrer antes da chamada.
+     */
+    protected void aposRemover(E item) {
+    }
+
+    /**
+     * Chamado depois que a trava é liberada, com os itens que acabaram de sair da fila em lote
+     * (drenarPara), na ordem da remoção. A implementação padrão chama aposRemover para cada item.
+     */
+    protected void aposRemover(List<E> removidos) {
+        for (E item : removidos) {
+            aposRemover(item);
+        }
+    }
+
+    /**
+     * Retorna o item na posição informada, contada a partir do início da fila. Exige a trava.
+     */
+    @SuppressWarnings("unchecked")
+    private E item(int posicao) {
+        return (E) itens[(inicio + posicao) % itens.length];
+    }
+
+    /**
+     * Refaz as somas da métrica caso sua versão tenha mudado desde o último cálculo. Exige a trava.
+     * Refazer as somas também descarta o erro de arredondamento acumulado desde então.
+     */
+    private void atualizarSomas() {
+        if (versaoMetrica == null) {
+            return;
+        }
+        long versao = versaoMetrica.getAsLong();
+        if (versao == versaoSomas) {
+            return;
+        }
+        // As métricas são calculadas antes de alterar as somas, para que uma falha não as deixe inconsistentes
+        double[] valores = new double[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            valores[i] = metrica.applyAsDouble(item(i));
+        }
+        somas.limpar();
+        for (double valor : valores) {
+            somas.adicionar(valor);
+        }
+        versaoSomas = versao;
+    }
+
+    /**
+     * Coloca o item no fim da fila e acorda um consumidor. Exige a trava e espaço livre.
+     */
+    private void enfileirar(E item) {
+        // A métrica é calculada antes de alterar a fila, para que uma falha não a deixe inconsistente
+        double valor = (somas != null) ? metrica.applyAsDouble(item) : 0.0;
+        itens[(inicio + tamanho) % itens.length] = item;
+        tamanho++;
+        if (somas != null) {
+            somas.adicionar(valor);
+        }
+        aoInserir(item);
+        naoVazia.signal();
+    }
+
+    /**
+     * Coloca o trecho do vetor no fim da fila e acorda os consumidores. Exige a trava e espaço livre.
+     */
+    private void enfileirarLote(E[] novos, int posicao, int quantidade) {
+        if (quantidade == 0) {
+            return;
+        }
+        double[] valores = null;
+        if (somas != null) {
+            // As métricas são calculadas antes de alterar a fila, para que uma falha não a deixe inconsistente
+            valores = new double[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                valores[i] = metrica.applyAsDouble(novos[posicao + i]);
+            }
+        }
+        for (int i = 0; i < quantidade; i++) {
+            E item = novos[posicao + i];
+            itens[(inicio + tamanho + i) % itens.length] = item;
+            if (somas != null) {
+                somas.adicionar(valores[i]);
+            }
+        }
+        tamanho += quantidade;
+        for (int i = 0; i < quantidade; i++) {
+            aoInserir(novos[posicao + i]);
+        }
+        naoVazia.signalAll();
+    }
+
+    /**
+     * Retira o item do início da fila e acorda um produtor. Exige a trava e fila não vazia.
+     */
+    private E desenfileirar() {
+        E itemRemovido = item(0);
+        itens[inicio] = null;
+        inicio = (inicio + 1) % itens.length;
+        tamanho--;
+        if (somas != null) {
+            somas.removerPrimeiro();
+        }
+        aoRemover(itemRemovido);
+        naoCheia.signal();
+        return itemRemovido;
+    }
+}
@@ -0,0 +1,221 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fila implementada sobre um vetor circular que cresce (e encolhe) por duplicação.
+ * Mantém a mesma interface da Fila encadeada, mas não aloca uma célula a cada inserção.
+ * As posições liberadas pela remoção são anuladas para que o coletor de lixo possa recuperar os itens.
+ */
+public class FilaCircular<E> extends Fila<E> {
+
+    /** Capacidade inicial do vetor e capacidade mínima ao encolher */
+    private static final int CAPACIDADE_INICIAL = 8;
+
+    private Object[] itens;
+    private int inicio;
+    private int tamanho;
+    private final boolean encolher;
+
+    public FilaCircular() {
+        this(CAPACIDADE_INICIAL, true);
+    }
+
+    /**
+     * Cria a fila com a capacidade inicial informada.
+     * @param capacidadeInicial Capacidade inicial do vetor (mínimo 1)
+     * @param encolher Indica se o vetor deve ser reduzido à metade quando ficar com até 1/4 de ocupação
+     */
+    public FilaCircular(int capacidadeInicial, boolean encolher) {
+        if (capacidadeInicial < 1) {
+            throw new IllegalArgumentException("A capacidade inicial deve ser um número positivo.");
+        }
+        itens = new Object[capacidadeInicial];
+        inicio = 0;
+        tamanho = 0;
+        this.encolher = encolher;
+    }
+
+    @Override
+    public boolean vazia() {
+        return tamanho == 0;
+    }
+
+    @Override
+    public void inserir(E item) {
+        if (tamanho == itens.length) {
+            redimensionar(itens.length * 2);
+        }
+        itens[(inicio + tamanho) % itens.length] = item;
+        tamanho++;
+    }
+
+    @Override
+    public E remover() {
+        if (vazia()) {
+            throw new NoSuchElementException("A fila está vazia!");
+        }
+        E itemRemovido = item(0);
+        itens[inicio] = null;
+        inicio = (inicio + 1) % itens.length;
+        tamanho--;
+
+        if (encolher && itens.length > CAPACIDADE_INICIAL && tamanho <= itens.length / 4) {
+            redimensionar(Math.max(CAPACIDADE_INICIAL, itens.length / 2));
+        }
+        return itemRemovido;
+    }
+
+    /**
+     * Insere o trecho do vetor com no máximo um redimensionamento e até duas cópias em bloco.
+     */
+    @Override
+    public void inserirTodos(E[] novos, int posicao, int quantidade) {
+        Objects.checkFromIndexSize(posicao, quantidade, novos.length);
+        if (tamanho + quantidade > itens.length) {
+            int novaCapacidade = itens.length;
+            while (novaCapacidade < tamanho + quantidade) {
+                novaCapacidade *= 2;
+            }
+            redimensionar(novaCapacidade);
+        }
+        int fim = (inicio + tamanho) % itens.length;
+        int primeiroBloco = Math.min(quantidade, itens.length - fim);
+        System.arraycopy(novos, posicao, itens, fim, primeiroBloco);
+        System.arraycopy(novos, posicao + primeiroBloco, itens, 0, quantidade - primeiroBloco);
+        tamanho += quantidade;
+    }
+
+    /**
+     * Remove os itens com até duas cópias em bloco, liberando as posições do vetor.
+     */
+    @Override
+    public int drenarPara(E[] destino, int maxItens) {
+        if (maxItens < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int removidos = Math.min(Math.min(maxItens, destino.length), tamanho);
+        int primeiroBloco = Math.min(removidos, itens.length - inicio);
+        System.arraycopy(itens, inicio, destino, 0, primeiroBloco);
+        System.arraycopy(itens, 0, destino, primeiroBloco, removidos - primeiroBloco);
+        Arrays.fill(itens, inicio, inicio + primeiroBloco, null);
+        Arrays.fill(itens, 0, removidos - primeiroBloco, null);
+        inicio = (tamanho == removidos) ? 0 : (inicio + removidos) % itens.length;
+        tamanho -= removidos;
+
+        if (encolher && itens.length > CAPACIDADE_INICIAL && tamanho <= itens.length / 4) {
+            int novaCapacidade = itens.length;
+            while (novaCapacidade > CAPACIDADE_INICIAL && tamanho <= novaCapacidade / 4) {
+                novaCapacidade /= 2;
+            }
+            redimensionar(Math.max(CAPACIDADE_INICIAL, novaCapacidade));
+        }
+        return removidos;
+    }
+
+    @Override
+    public E consultarInicio() {
+        if (vazia()) {
+            throw new NoSuchElementException("A fila está vazia!");
+        }
+        return item(0);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public double calcularValorMedio(Function<E, Double> extrator, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade deve ser um número positivo.");
+        }
+        if (quantidade > this.size()) {
+            throw new IllegalArgumentException("A fila não contém " + quantidade + " elementos. Tamanho atual: " + this.size());
+        }
+
+        double soma = 0.0;
+        for (int i = 0; i < quantidade; i++) {
+            Double valor = extrator.apply(item(i));
+            if (valor != null) {
+                soma += valor;
+            }
+        }
+        return soma / quantidade;
+    }
+
+    @Override
+    public Fila<E> filtrar(Predicate<E> condicional, int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int limiteTeste = Math.min(quantidade, this.size());
+
+        FilaCircular<E> resultado = new FilaCircular<>();
+        for (int i = 0; i < limiteTeste; i++) {
+            E item = item(i);
+            if (condicional.test(item)) {
+                resultado.inserir(item);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public int filtrar(Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int limiteTeste = Math.min(quantidade, this.size());
+
+        int entregues = 0;
+        for (int i = 0; i < limiteTeste; i++) {
+            E item = item(i);
+            if (condicional.test(item)) {
+                consumidor.accept(item);
+                entregues++;
+            }
+        }
+        return entregues;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Spliterator que acessa as posições do vetor diretamente e se divide ao meio, sem copiar elementos.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SpliteratorIndexado<>(this::item, 0, tamanho, 0);
+    }
+
+    /**
+     * Retorna o item na posição informada, contada a partir do início da fila.
+     */
+    @SuppressWarnings("unchecked")
+    private E item(int posicao) {
+        return (E) itens[(inicio + posicao) % itens.length];
+    }
+
+    /**
+     * Copia os itens para um novo vetor com a capacidade informada, reposicionando o início em 0.
+     */
+    private void redimensionar(int novaCapacidade) {
+        Object[] novo = new Object[novaCapacidade];
+        int primeiroBloco = Math.min(tamanho, itens.length - inicio);
+        System.arraycopy(itens, inicio, novo, 0, primeiroBloco);
+        System.arraycopy(itens, 0, novo, primeiroBloco, tamanho - primeiroBloco);
+        itens = novo;
+        inicio = 0;
+    }
+}
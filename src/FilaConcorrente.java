@@ -0,0 +1,353 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fila concorrente e não bloqueante (algoritmo de Michael e Scott). Permite que várias threads
+ * insiram e removam ao mesmo tempo sem uso de travas, mantendo o contrato de inserir, remover e size da Fila.
+ * Usa nós próprios, cujo próximo é volátil e trocado atomicamente; a Celula das filas e pilhas
+ * de uma única thread continua sem campos voláteis.
+ * O nó removido passa a ser o sentinela da fila e tem o seu item substituído por uma marca,
+ * para que a fila não mantenha referência ao item já entregue.
+ * As consultas que percorrem a fila (calcularValorMedio e filtrar) enxergam um retrato
+ * fracamente consistente: refletem a fila em algum momento durante o percurso.
+ */
+public class FilaConcorrente<E> extends Fila<E> {
+
+    /** Item dos nós já removidos, que podem ainda ser alcançados por percursos em andamento */
+    private static final Object REMOVIDO = new Object();
+
+    private final AtomicReference<No<E>> frente;
+    private final AtomicReference<No<E>> tras;
+    private final AtomicInteger tamanho;
+
+    public FilaConcorrente() {
+        No<E> sentinela = new No<E>(null);
+        frente = new AtomicReference<>(sentinela);
+        tras = new AtomicReference<>(sentinela);
+        tamanho = new AtomicInteger(0);
+    }
+
+    @Override
+    public boolean vazia() {
+        return frente.get().proximo == null;
+    }
+
+    @Override
+    public void inserir(E item) {
+        No<E> nova = new No<E>(item);
+        while (true) {
+            No<E> ultima = tras.get();
+            No<E> seguinte = ultima.proximo;
+            if (ultima != tras.get()) {
+                continue;
+            }
+            if (seguinte == null) {
+                if (ultima.trocarProximo(null, nova)) {
+                    tras.compareAndSet(ultima, nova);
+                    tamanho.incrementAndGet();
+                    return;
+                }
+            } else {
+                // Outra thread inseriu mas ainda não avançou o fim: ajuda a avançá-lo
+                tras.compareAndSet(ultima, seguinte);
+            }
+        }
+    }
+
+    @Override
+    public E remover() {
+        while (true) {
+            No<E> primeira = frente.get();
+            No<E> ultima = tras.get();
+            No<E> seguinte = primeira.proximo;
+            if (primeira != frente.get()) {
+                continue;
+            }
+            if (seguinte == null) {
+                throw new NoSuchElementException("A fila está vazia!");
+            }
+            if (primeira == ultima) {
+                tras.compareAndSet(ultima, seguinte);
+                continue;
+            }
+            Object itemRemovido = seguinte.item;
+            if (frente.compareAndSet(primeira, seguinte)) {
+                seguinte.item = REMOVIDO;
+                tamanho.decrementAndGet();
+                return comoItem(itemRemovido);
+            }
+        }
+    }
+
+    /**
+     * Encadeia as células do lote localmente e as liga ao fim da fila com uma única troca atômica,
+     * de modo que outras threads veem o lote inteiro, contíguo e na ordem do vetor.
+     */
+    @Override
+    public void inserirTodos(E[] itens, int inicio, int quantidade) {
+        Objects.checkFromIndexSize(inicio, quantidade, itens.length);
+        if (quantidade == 0) {
+            return;
+        }
+        No<E> primeira = new No<E>(itens[inicio]);
+        No<E> ultimaDoLote = primeira;
+        for (int i = inicio + 1; i < inicio + quantidade; i++) {
+            No<E> nova = new No<E>(itens[i]);
+            ultimaDoLote.proximo = nova;
+            ultimaDoLote = nova;
+        }
+        while (true) {
+            No<E> ultima = tras.get();
+            No<E> seguinte = ultima.proximo;
+            if (ultima != tras.get()) {
+                continue;
+            }
+            if (seguinte == null) {
+                if (ultima.trocarProximo(null, primeira)) {
+                    tras.compareAndSet(ultima, ultimaDoLote);
+                    tamanho.addAndGet(quantidade);
+                    return;
+                }
+            } else {
+                tras.compareAndSet(ultima, seguinte);
+            }
+        }
+    }
+
+    /**
+     * Remove o lote com uma única troca atômica da frente. Se outra thread remover itens
+     * durante a leitura do lote, a leitura é refeita.
+     */
+    @Override
+    public int drenarPara(E[] destino, int maxItens) {
+        if (maxItens < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        int limite = Math.min(maxItens, destino.length);
+        lote:
+        while (true) {
+            No<E> primeira = frente.get();
+            No<E> atual = primeira;
+            int removidos = 0;
+            while (removidos < limite) {
+                No<E> seguinte = atual.proximo;
+                if (seguinte == null) {
+                    break;
+                }
+                Object item = seguinte.item;
+                if (item == REMOVIDO) {
+                    // Outra thread já removeu este nó: a frente mudou
+                    continue lote;
+                }
+                destino[removidos++] = comoItem(item);
+                atual = seguinte;
+            }
+            if (removidos == 0) {
+                return 0;
+            }
+            // O fim pode ficar momentaneamente atrás da frente; as próximas inserções o fazem avançar
+            if (frente.compareAndSet(primeira, atual)) {
+                for (No<E> removido = primeira.proximo; removido != atual; removido = removido.proximo) {
+                    removido.item = REMOVIDO;
+                }
+                atual.item = REMOVIDO;
+                tamanho.addAndGet(-removidos);
+                return removidos;
+            }
+        }
+    }
+
+    @Override
+    public E consultarInicio() {
+        while (true) {
+            No<E> primeiroItem = frente.get().proximo;
+            if (primeiroItem == null) {
+                throw new NoSuchElementException("A fila está vazia!");
+            }
+            Object item = primeiroItem.item;
+            // Se o nó foi removido depois de lido, consulta a nova frente
+            if (item != REMOVIDO) {
+                return comoItem(item);
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de itens na fila. Sob concorrência, o valor é uma aproximação
+     * que pode não refletir inserções e remoções em andamento.
+     */
+    @Override
+    public int size() {
+        return Math.max(0, tamanho.get());
+    }
+
+    @Override
+    public double calcularValorMedio(Function<E, Double> extrator, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade deve ser um número positivo.");
+        }
+        if (quantidade > this.size()) {
+            throw new IllegalArgumentException("A fila não contém " + quantidade + " elementos. Tamanho atual: " + this.size());
+        }
+
+        double soma = 0.0;
+        No<E> atual = frente.get().proximo;
+        int contador = 0;
+
+        while (atual != null && contador < quantidade) {
+            Object item = atual.item;
+            if (item != REMOVIDO) {
+                Double valor = extrator.apply(comoItem(item));
+                if (valor != null) {
+                    soma += valor;
+                }
+                contador++;
+            }
+            atual = atual.proximo;
+        }
+
+        if (contador == 0) return 0.0;
+        return soma / contador;
+    }
+
+    @Override
+    public Fila<E> filtrar(Predicate<E> condicional, int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+
+        Fila<E> resultado = new Fila<>();
+        No<E> atual = frente.get().proximo;
+        int contador = 0;
+
+        while (atual != null && contador < quantidade) {
+            Object lido = atual.item;
+            if (lido != REMOVIDO) {
+                E item = comoItem(lido);
+                if (condicional.test(item)) {
+                    resultado.inserir(item);
+                }
+                contador++;
+            }
+            atual = atual.proximo;
+        }
+
+        return resultado;
+    }
+
+    @Override
+    public int filtrar(Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+
+        No<E> atual = frente.get().proximo;
+        int contador = 0;
+        int entregues = 0;
+
+        while (atual != null && contador < quantidade) {
+            Object lido = atual.item;
+            if (lido != REMOVIDO) {
+                E item = comoItem(lido);
+                if (condicional.test(item)) {
+                    consumidor.accept(item);
+                    entregues++;
+                }
+                contador++;
+            }
+            atual = atual.proximo;
+        }
+
+        return entregues;
+    }
+
+    /**
+     * Percorre os elementos do início para o fim. O percurso é fracamente consistente:
+     * nunca lança exceção por modificações concorrentes e pode ou não refletir inserções feitas durante ele.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private No<E> atual = frente.get();
+            /** Item do nó atual, lido antes que ele possa ser removido; REMOVIDO ao fim do percurso */
+            private Object proximoItem = avancar();
+
+            /**
+             * Avança para o próximo nó ainda não removido e retorna o seu item.
+             */
+            private Object avancar() {
+                while ((atual = atual.proximo) != null) {
+                    Object item = atual.item;
+                    if (item != REMOVIDO) {
+                        return item;
+                    }
+                }
+                return REMOVIDO;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximoItem != REMOVIDO;
+            }
+
+            @Override
+            public E next() {
+                if (proximoItem == REMOVIDO) {
+                    throw new NoSuchElementException("Não há mais elementos na fila.");
+                }
+                E item = comoItem(proximoItem);
+                proximoItem = avancar();
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Spliterator fracamente consistente. Como o tamanho pode mudar durante o percurso,
+     * ele não é informado como exato; a divisão copia lotes de elementos para vetores.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.CONCURRENT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E comoItem(Object item) {
+        return (E) item;
+    }
+
+    /**
+     * Nó da fila concorrente: o próximo é volátil e pode ser trocado atomicamente.
+     * O item passa a ser REMOVIDO quando o nó sai da fila.
+     */
+    private static final class No<E> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<No, No> PROXIMO =
+                AtomicReferenceFieldUpdater.newUpdater(No.class, No.class, "proximo");
+
+        Object item;
+        volatile No<E> proximo;
+
+        No(E item) {
+            this.item = item;
+        }
+
+        /**
+         * Troca atomicamente o próximo do nó, caso ele ainda seja o esperado.
+         * @return true/false indicando se a troca foi realizada
+         */
+        boolean trocarProximo(No<E> esperado, No<E> novo) {
+            return PROXIMO.compareAndSet(this, esperado, novo);
+        }
+    }
+}
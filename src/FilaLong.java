@@ -0,0 +1,72 @@
+import java.util.LongSummaryStatistics;
+
+/**
+ * Fila de valores long sobre um vetor circular de tipo primitivo, que cresce por duplicação.
+ * Guarda os valores sem criar um objeto Long para cada um, o que a torna adequada para
+ * séries de métricas inteiras (contagens, instantes, valores em centavos) que são apenas somadas e comparadas.
+ */
+public class FilaLong extends FilaPrimitiva<long[]> {
+
+    public FilaLong() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Cria a fila com a capacidade inicial informada.
+     * @param capacidadeInicial Capacidade inicial do vetor (mínimo 1)
+     */
+    public FilaLong(int capacidadeInicial) {
+        super(capacidadeInicial);
+    }
+
+    @Override
+    protected long[] novoVetor(int tamanho) {
+        return new long[tamanho];
+    }
+
+    public void inserir(long valor) {
+        int posicao = posicaoParaInserir();
+        valores[posicao] = valor;
+    }
+
+    public long remover() {
+        return valores[posicaoParaRemover()];
+    }
+
+    public long consultarInicio() {
+        return valores[posicaoDoInicio()];
+    }
+
+    /**
+     * Resume os primeiros valores da fila (contagem, soma, média, mínimo e máximo) em um único percurso.
+     * @param quantidade Quantidade de valores, a partir do início, a considerar (entre 0 e size())
+     * @return Estatísticas dos valores (vazias, caso a quantidade seja 0)
+     * @throws IllegalArgumentException caso a quantidade esteja fora dos limites
+     */
+    public LongSummaryStatistics resumir(int quantidade) {
+        exigirQuantidade(quantidade);
+        LongSummaryStatistics resumo = new LongSummaryStatistics();
+        for (int i = 0; i < quantidade; i++) {
+            resumo.accept(valores[posicao(i)]);
+        }
+        return resumo;
+    }
+
+    /**
+     * Conta, em um único percurso, quantos dos primeiros valores da fila estão acima do limite.
+     * @param limite Valor que deve ser ultrapassado (estritamente)
+     * @param quantidade Quantidade de valores, a partir do início, a considerar (entre 0 e size())
+     * @return A quantidade de valores acima do limite
+     * @throws IllegalArgumentException caso a quantidade esteja fora dos limites
+     */
+    public int contarAcimaDe(long limite, int quantidade) {
+        exigirQuantidade(quantidade);
+        int encontrados = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (valores[posicao(i)] > limite) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+}
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fila limitada de pedidos que mantém um índice invertido: para cada código de produto,
+ * a lista (em ordem de chegada) dos pedidos na fila que contêm aquele produto.
+ * O índice, uma TabelaInt (chaves int, sem objetos Integer), é atualizado a cada inserção e remoção,
+ * de modo que a consulta "pedidos que contêm o produto X entre os N primeiros" não precisa percorrer a fila.
+ * Cada pedido recebe um número de sequência na inserção; sua posição na fila é
+ * esse número menos a quantidade de pedidos já removidos.
+ * A fila também mantém um retrato persistente do seu conteúdo, que relatórios podem
+ * percorrer sem obter a trava enquanto novos pedidos continuam chegando.
+ * Se houver um diário de pedidos associado, cada pedido removido é registrado nele como consumido,
+ * depois que a trava da fila é liberada: a espera pela gravação em disco não atrasa as demais threads.
+ */
+public class FilaPedidos extends FilaBloqueante<Pedido> {
+
+	private final TabelaInt<Postagens> indice;
+	private long totalInseridos;
+	private long totalRemovidos;
+	/** Versão persistente do conteúdo da fila, substituída (com a trava obtida) a cada inserção e remoção */
+	private volatile FilaPersistente<Pedido> retrato;
+	/** Diário onde os pedidos removidos são registrados como consumidos (null, caso não haja) */
+	private volatile DiarioPedidos diario;
+
+	/**
+	 * Cria a fila com a capacidade informada. O valor final de cada pedido é agregado
+	 * no momento da inserção, permitindo obter a média dos N primeiros pedidos em O(1).
+	 * Como o valor de perecíveis muda com o dia, as somas são refeitas na primeira consulta
+	 * após a virada do dia no relógio de preços.
+	 * @param capacidade Quantidade máxima de pedidos na fila (mínimo 1)
+	 */
+	public FilaPedidos(int capacidade) {
+		super(capacidade, Pedido::valorFinal, RelogioPrecos::diaAtual);
+		indice = new TabelaInt<>();
+		totalInseridos = 0;
+		totalRemovidos = 0;
+		retrato = new FilaPersistente<>();
+	}
+
+	/**
+	 * Retorna, sem obter a trava, um retrato consistente dos pedidos na fila neste momento.
+	 * O retrato é imutável: inserções e remoções posteriores não o alteram, então ele pode ser
+	 * percorrido demoradamente sem atrasar produtores e consumidores.
+	 */
+	public FilaPersistente<Pedido> retrato() {
+		return retrato;
+	}
+
+	/**
+	 * Associa a fila ao diário de pedidos: a partir daqui, cada pedido removido da fila é registrado
+	 * no diário como consumido, para não ser recriado quando o diário for relido.
+	 * @param diario Diário de pedidos (null para deixar de registrar os consumos)
+	 */
+	public void usarDiario(DiarioPedidos diario) {
+		this.diario = diario;
+	}
+
+	/**
+	 * Retorna, em ordem de chegada, os pedidos entre os primeiros da fila que contêm o produto informado.
+	 * @param idProduto Código do produto procurado
+	 * @param quantidade Quantidade de pedidos, a partir do início da fila, a considerar
+	 * @return Uma nova fila com os pedidos encontrados (vazia, caso nenhum)
+	 * @throws IllegalArgumentException caso a quantidade seja negativa
+	 */
+	public Fila<Pedido> pedidosComProduto(int idProduto, int quantidade) {
+		return pedidosComProdutos(new int[] { idProduto }, quantidade);
+	}
+
+	/**
+	 * Retorna, em ordem de chegada e sem repetições, os pedidos entre os primeiros da fila que contêm
+	 * algum dos produtos informados (por exemplo, todos os produtos com uma mesma descrição).
+	 * As listas de pedidos de cada produto, já ordenadas, são intercaladas sem percorrer a fila.
+	 * @param idsProdutos Códigos dos produtos procurados
+	 * @param quantidade Quantidade de pedidos, a partir do início da fila, a considerar
+	 * @return Uma nova fila com os pedidos encontrados (vazia, caso nenhum)
+	 * @throws IllegalArgumentException caso a quantidade seja negativa
+	 */
+	public Fila<Pedido> pedidosComProdutos(int[] idsProdutos, int quantidade) {
+		Pedido[] encontrados = copiarPedidosComProdutos(idsProdutos, quantidade);
+		Fila<Pedido> resultado = new FilaCircular<>();
+		resultado.inserirTodos(encontrados, 0, encontrados.length);
+		return resultado;
+	}
+
+	/**
+	 * Entrega ao consumidor, em ordem de chegada e sem repetições, os pedidos entre os primeiros da fila
+	 * que contêm algum dos produtos informados, lidos do índice sem criar uma fila de resultado.
+	 * Os pedidos encontrados são copiados com a trava obtida e entregues ao consumidor depois de liberá-la,
+	 * então um consumidor lento não atrasa inserções e remoções.
+	 * @param idsProdutos Códigos dos produtos procurados
+	 * @param quantidade Quantidade de pedidos, a partir do início da fila, a considerar
+	 * @param consumidor Ação executada para cada pedido encontrado
+	 * @return A quantidade de pedidos entregues ao consumidor
+	 * @throws IllegalArgumentException caso a quantidade seja negativa
+	 */
+	public int pedidosComProdutos(int[] idsProdutos, int quantidade, Consumer<? super Pedido> consumidor) {
+		Pedido[] encontrados = copiarPedidosComProdutos(idsProdutos, quantidade);
+		for (Pedido pedido : encontrados) {
+			consumidor.accept(pedido);
+		}
+		return encontrados.length;
+	}
+
+	/**
+	 * Intercala, com a trava obtida, as listas de pedidos dos produtos informados, limitadas aos primeiros
+	 * pedidos da fila. Um pedido que contém mais de um dos produtos aparece uma única vez.
+	 */
+	private Pedido[] copiarPedidosComProdutos(int[] idsProdutos, int quantidade) {
+		if (quantidade < 0) {
+			throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+		}
+		Postagens[] listas = new Postagens[idsProdutos.length];
+		int[] cursores = new int[idsProdutos.length];
+		Pedido[] encontrados;
+		int quantos = 0;
+		trava.lock();
+		try {
+			int total = 0;
+			for (int i = 0; i < idsProdutos.length; i++) {
+				listas[i] = indice.localizar(idsProdutos[i]);
+				if (listas[i] != null) {
+					cursores[i] = listas[i].inicio;
+					total += listas[i].fim - listas[i].inicio;
+				}
+			}
+			long limite = totalRemovidos + quantidade;
+			encontrados = new Pedido[Math.min(quantidade, total)];
+			while (true) {
+				// Menor sequência entre as cabeças das listas; as listas que a contêm avançam juntas
+				long menor = limite;
+				for (int i = 0; i < listas.length; i++) {
+					if (listas[i] != null && cursores[i] < listas[i].fim && listas[i].sequencias[cursores[i]] < menor) {
+						menor = listas[i].sequencias[cursores[i]];
+					}
+				}
+				if (menor == limite) {
+					break;
+				}
+				for (int i = 0; i < listas.length; i++) {
+					if (listas[i] != null && cursores[i] < listas[i].fim && listas[i].sequencias[cursores[i]] == menor) {
+						encontrados[quantos] = listas[i].pedidos[cursores[i]];
+						cursores[i]++;
+					}
+				}
+				quantos++;
+			}
+		} finally {
+			trava.unlock();
+		}
+		return (quantos == encontrados.length) ? encontrados : Arrays.copyOf(encontrados, quantos);
+	}
+
+	@Override
+	protected void aoInserir(Pedido pedido) {
+		retrato = retrato.inserir(pedido);
+		long sequencia = totalInseridos++;
+		for (int i = 0; i < pedido.getQuantosItens(); i++) {
+			int idProduto = pedido.getIdProduto(i);
+			Postagens postagens = indice.localizar(idProduto);
+			if (postagens == null) {
+				postagens = new Postagens();
+				indice.inserir(idProduto, postagens);
+			}
+			postagens.adicionar(sequencia, pedido);
+		}
+	}
+
+	/**
+	 * Registra o consumo no diário, já sem a trava da fila.
+	 */
+	@Override
+	protected void aposRemover(Pedido pedido) {
+		DiarioPedidos diario = this.diario;
+		if (diario != null) {
+			diario.registrarConsumo(pedido);
+		}
+	}
+
+	/**
+	 * Registra no diário o consumo de todo o lote, com uma única espera pela gravação.
+	 */
+	@Override
+	protected void aposRemover(List<Pedido> removidos) {
+		DiarioPedidos diario = this.diario;
+		if (diario != null) {
+			diario.registrarConsumo(removidos);
+		}
+	}
+
+	@Override
+	protected void aoRemover(Pedido pedido) {
+		retrato = retrato.remover();
+		long sequencia = totalRemovidos++;
+		for (int i = 0; i < pedido.getQuantosItens(); i++) {
+			int idProduto = pedido.getIdProduto(i);
+			Postagens postagens = indice.localizar(idProduto);
+			if (postagens != null) {
+				postagens.descartarAte(sequencia);
+				if (postagens.vazia()) {
+					indice.remover(idProduto);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lista de pedidos de um produto, em ordem crescente de sequência. Como a fila só remove
+	 * pelo início, os descartes sempre acontecem no começo da lista.
+	 */
+	private static class Postagens {
+
+		private long[] sequencias = new long[4];
+		private Pedido[] pedidos = new Pedido[4];
+		private int inicio = 0;
+		private int fim = 0;
+
+		boolean vazia() {
+			return inicio == fim;
+		}
+
+		void adicionar(long sequencia, Pedido pedido) {
+			// Um mesmo produto pode aparecer mais de uma vez no pedido
+			if (fim > inicio && sequencias[fim - 1] == sequencia) {
+				return;
+			}
+			if (fim == sequencias.length) {
+				int ocupados = fim - inicio;
+				if (ocupados * 2 <= sequencias.length) {
+					System.arraycopy(sequencias, inicio, sequencias, 0, ocupados);
+					System.arraycopy(pedidos, inicio, pedidos, 0, ocupados);
+					Arrays.fill(pedidos, ocupados, fim, null);
+				} else {
+					sequencias = Arrays.copyOfRange(sequencias, inicio, inicio + ocupados * 2);
+					pedidos = Arrays.copyOfRange(pedidos, inicio, inicio + ocupados * 2);
+				}
+				inicio = 0;
+				fim = ocupados;
+			}
+			sequencias[fim] = sequencia;
+			pedidos[fim] = pedido;
+			fim++;
+		}
+
+		void descartarAte(long sequencia) {
+			while (inicio < fim && sequencias[inicio] <= sequencia) {
+				pedidos[inicio] = null;
+				inicio++;
+			}
+		}
+	}
+}
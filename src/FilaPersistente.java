@@ -0,0 +1,149 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fila persistente (imutável), no formato de duas pilhas persistentes: a frente guarda o início
+ * da fila no topo e o fundo guarda o fim da fila no topo. Inserir e remover não alteram a fila:
+ * devolvem uma nova versão que compartilha com a anterior quase todos os elementos.
+ * O fundo nunca fica maior que a frente (fila do banqueiro): quando passaria a ser, ele é invertido e
+ * colocado abaixo da frente. Como a rotação só ocorre quando o fundo passa do tamanho da frente, seu custo
+ * é pago pelas inserções que encheram o fundo: inserir e remover custam O(1) amortizado ao longo de uma
+ * sequência de versões, e percorrer os n primeiros elementos custa O(n),
+ * pois o fundo só é alcançado depois da frente, que é pelo menos tão grande quanto ele.
+ * Uma versão pode ser lida por várias threads, sem travas, enquanto novas versões são criadas,
+ * o que permite que relatórios trabalhem sobre um retrato consistente da fila.
+ */
+public final class FilaPersistente<E> implements Iterable<E> {
+
+    private final PilhaPersistente<E> frente;
+    private final PilhaPersistente<E> fundo;
+
+    /**
+     * Cria uma fila vazia.
+     */
+    public FilaPersistente() {
+        this(new PilhaPersistente<>(), new PilhaPersistente<>());
+    }
+
+    private FilaPersistente(PilhaPersistente<E> frente, PilhaPersistente<E> fundo) {
+        // Mantém o fundo no máximo do tamanho da frente; em particular, a frente fica preenchida
+        // sempre que a fila não estiver vazia, para consultar o início em O(1)
+        if (fundo.size() > frente.size()) {
+            this.frente = frente.acimaDe(fundo.inverter());
+            this.fundo = new PilhaPersistente<>();
+        } else {
+            this.frente = frente;
+            this.fundo = fundo;
+        }
+    }
+
+    public boolean vazia() {
+        return frente.vazia();
+    }
+
+    /**
+     * Retorna uma nova versão da fila com o item no fim. Esta versão não é alterada.
+     */
+    public FilaPersistente<E> inserir(E item) {
+        return new FilaPersistente<>(frente, fundo.empilhar(item));
+    }
+
+    /**
+     * Retorna uma nova versão da fila sem o primeiro item. Esta versão não é alterada;
+     * o item removido pode ser obtido antes com consultarInicio.
+     * @throws NoSuchElementException caso a fila esteja vazia.
+     */
+    public FilaPersistente<E> remover() {
+        if (vazia()) {
+            throw new NoSuchElementException("A fila está vazia!");
+        }
+        return new FilaPersistente<>(frente.desempilhar(), fundo);
+    }
+
+    public E consultarInicio() {
+        if (vazia()) {
+            throw new NoSuchElementException("A fila está vazia!");
+        }
+        return frente.consultarTopo();
+    }
+
+    public int size() {
+        return frente.size() + fundo.size();
+    }
+
+    public double calcularValorMedio(Function<E, Double> extrator, int quantidade) {
+        return Percursos.calcularValorMedio(this, size(), "fila", extrator, quantidade);
+    }
+
+    /**
+     * Percorre os primeiros elementos da fila e entrega ao consumidor, em ordem, os que atendem à condição.
+     * @param condicional Condição que os elementos devem atender
+     * @param quantidade Quantidade de elementos, a partir do início, a considerar
+     * @param consumidor Ação executada para cada elemento que atende à condição
+     * @return A quantidade de elementos entregues ao consumidor
+     * @throws IllegalArgumentException caso a quantidade seja negativa
+     */
+    public int filtrar(Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+        return Percursos.filtrar(this, condicional, quantidade, consumidor);
+    }
+
+    /**
+     * Percorre os elementos da fila do início para o fim. Os elementos do fundo só são
+     * colocados em ordem (copiados para um vetor) se o percurso chegar até eles; como o fundo
+     * não é maior que a frente, essa cópia não passa do que já foi percorrido.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Iterator<E> daFrente = frente.iterator();
+            private Object[] doFundo;
+            private int posicao;
+
+            @Override
+            public boolean hasNext() {
+                if (daFrente.hasNext()) {
+                    return true;
+                }
+                return (doFundo == null) ? !fundo.vazia() : posicao > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (daFrente.hasNext()) {
+                    return daFrente.next();
+                }
+                if (doFundo == null) {
+                    doFundo = new Object[fundo.size()];
+                    for (E item : fundo) {
+                        doFundo[posicao++] = item;
+                    }
+                }
+                if (posicao == 0) {
+                    throw new NoSuchElementException("Não há mais elementos na fila.");
+                }
+                return (E) doFundo[--posicao];
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Base das filas de valores primitivos (FilaDouble, FilaLong): um vetor circular de tipo primitivo,
+ * que cresce por duplicação. Esta classe cuida apenas das posições (início, tamanho e crescimento);
+ * cada subclasse lê e grava os valores no seu próprio vetor, nas posições que recebe daqui.
+ * @param <V> Tipo do vetor de valores (double[], long[])
+ */
+public abstract class FilaPrimitiva<V> {
+
+    /** Capacidade inicial do vetor */
+    protected static final int CAPACIDADE_INICIAL = 8;
+
+    protected V valores;
+    private int capacidade;
+    private int inicio;
+    private int tamanho;
+
+    /**
+     * Cria a fila com a capacidade inicial informada.
+     * @param capacidadeInicial Capacidade inicial do vetor (mínimo 1)
+     */
+    protected FilaPrimitiva(int capacidadeInicial) {
+        if (capacidadeInicial < 1) {
+            throw new IllegalArgumentException("A capacidade inicial deve ser um número positivo.");
+        }
+        valores = novoVetor(capacidadeInicial);
+        capacidade = capacidadeInicial;
+        inicio = 0;
+        tamanho = 0;
+    }
+
+    /**
+     * Cria um vetor de valores com o tamanho informado.
+     */
+    protected abstract V novoVetor(int tamanho);
+
+    public boolean vazia() {
+        return tamanho == 0;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * Reserva, crescendo o vetor se necessário, a posição do vetor onde o novo valor deve ser gravado.
+     */
+    protected int posicaoParaInserir() {
+        if (tamanho == capacidade) {
+            V novo = novoVetor(capacidade * 2);
+            int primeiroBloco = Math.min(tamanho, capacidade - inicio);
+            System.arraycopy(valores, inicio, novo, 0, primeiroBloco);
+            System.arraycopy(valores, 0, novo, primeiroBloco, tamanho - primeiroBloco);
+            valores = novo;
+            capacidade *= 2;
+            inicio = 0;
+        }
+        int posicao = (inicio + tamanho) % capacidade;
+        tamanho++;
+        return posicao;
+    }
+
+    /**
+     * Libera a posição do primeiro valor da fila e a retorna, para que ele seja lido.
+     * @throws NoSuchElementException caso a fila esteja vazia
+     */
+    protected int posicaoParaRemover() {
+        int posicao = posicaoDoInicio();
+        inicio = (inicio + 1) % capacidade;
+        tamanho--;
+        return posicao;
+    }
+
+    /**
+     * Retorna a posição do primeiro valor da fila.
+     * @throws NoSuchElementException caso a fila esteja vazia
+     */
+    protected int posicaoDoInicio() {
+        if (vazia()) {
+            throw new NoSuchElementException("A fila está vazia!");
+        }
+        return inicio;
+    }
+
+    /**
+     * Retorna a posição do vetor do valor informado, contado a partir do início da fila.
+     */
+    protected int posicao(int indice) {
+        return (inicio + indice) % capacidade;
+    }
+
+    /**
+     * Verifica se a fila contém a quantidade de valores informada.
+     * @throws IllegalArgumentException caso a quantidade não esteja entre 0 e size()
+     */
+    protected void exigirQuantidade(int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+        }
+        if (quantidade > tamanho) {
+            throw new IllegalArgumentException("A fila não contém " + quantidade + " elementos. Tamanho atual: " + tamanho);
+        }
+    }
+}
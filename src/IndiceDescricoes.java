@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Índice de produtos por descrição, construído uma única vez na carga do catálogo.
+ * O índice guarda apenas as linhas do catálogo em colunas, ordenadas pela descrição normalizada (sem espaços
+ * nas pontas e em minúsculas); a busca exata e a busca por prefixo são feitas com pesquisa binária.
+ * As comparações usam os códigos das palavras no dicionário do catálogo, sem montar nem converter as
+ * descrições. Assim, as buscas por nome não precisam percorrer todo o catálogo, e os objetos Produto só
+ * são criados para os produtos encontrados.
+ */
+public class IndiceDescricoes {
+
+	private final ProdutoStore catalogo;
+	/** Linhas do catálogo em ordem de descrição; descrições iguais ficam em ordem crescente de linha */
+	private int[] linhasOrdenadas;
+	private int quantidade;
+
+	/**
+	 * Cria um índice vazio sobre o catálogo informado.
+	 * @param catalogo Catálogo cujas linhas serão indexadas
+	 */
+	public IndiceDescricoes(ProdutoStore catalogo) {
+		this.catalogo = catalogo;
+		linhasOrdenadas = new int[0];
+		quantidade = 0;
+	}
+
+	/**
+	 * Cria o índice com todas as linhas do catálogo.
+	 * Em caso de descrições repetidas, a busca exata devolve o produto da primeira linha.
+	 * @param catalogo Catálogo de produtos
+	 * @return O índice com os produtos do catálogo
+	 */
+	public static IndiceDescricoes criar(ProdutoStore catalogo) {
+		IndiceDescricoes indice = new IndiceDescricoes(catalogo);
+		int quantos = catalogo.size();
+		Integer[] ordem = new Integer[quantos];
+		for (int linha = 0; linha < quantos; linha++) {
+			ordem[linha] = linha;
+		}
+
+		// Ordenação estável: descrições repetidas mantêm a ordem das linhas
+		Arrays.sort(ordem, catalogo::compararDescricoes);
+
+		indice.linhasOrdenadas = new int[quantos];
+		for (int i = 0; i < quantos; i++) {
+			indice.linhasOrdenadas[i] = ordem[i];
+		}
+		indice.quantidade = quantos;
+		return indice;
+	}
+
+	public ProdutoStore catalogo() {
+		return catalogo;
+	}
+
+	/**
+	 * Inclui a linha do catálogo no índice, mantendo o vetor de linhas ordenado por descrição.
+	 * As linhas devem ser incluídas em ordem crescente, como são acrescentadas ao catálogo.
+	 * @param linha Linha do produto no catálogo
+	 */
+	public void inserir(int linha) {
+		if (quantidade == linhasOrdenadas.length) {
+			linhasOrdenadas = Arrays.copyOf(linhasOrdenadas, Math.max(16, quantidade * 2));
+		}
+		int inicio = 0, fim = quantidade;
+		while (inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if (catalogo.compararDescricoes(linhasOrdenadas[meio], linha) <= 0) {
+				inicio = meio + 1;
+			} else {
+				fim = meio;
+			}
+		}
+		int posicao = inicio;
+		System.arraycopy(linhasOrdenadas, posicao, linhasOrdenadas, posicao + 1, quantidade - posicao);
+		linhasOrdenadas[posicao] = linha;
+		quantidade++;
+	}
+
+	/**
+	 * Localiza o produto cuja descrição é igual à informada, sem diferenciar maiúsculas e minúsculas.
+	 * @param descricao Descrição procurada
+	 * @return A linha do produto com a descrição informada, ou -1 caso não exista
+	 */
+	public int localizarLinha(String descricao) {
+		String[] chave = normalizar(descricao);
+		int posicao = limiteInferior(chave);
+		return (posicao < quantidade && catalogo.compararDescricao(linhasOrdenadas[posicao], chave) == 0)
+				? linhasOrdenadas[posicao] : -1;
+	}
+
+	/**
+	 * Localiza o produto cuja descrição é igual à informada, sem diferenciar maiúsculas e minúsculas.
+	 * @param descricao Descrição procurada
+	 * @return O produto com a descrição informada, ou null caso não exista
+	 */
+	public Produto localizar(String descricao) {
+		int linha = localizarLinha(descricao);
+		return (linha < 0) ? null : catalogo.produto(linha);
+	}
+
+	/**
+	 * Localiza todos os produtos cuja descrição é igual à informada, sem diferenciar maiúsculas e minúsculas.
+	 * Diferente de localizar, considera também os produtos com descrições repetidas.
+	 * @param descricao Descrição procurada
+	 * @return Vetor com as linhas dos produtos encontrados (vazio, caso nenhum)
+	 */
+	public int[] localizarTodos(String descricao) {
+		String[] chave = normalizar(descricao);
+		return Arrays.copyOfRange(linhasOrdenadas, limiteInferior(chave), limiteSuperior(chave));
+	}
+
+	/**
+	 * Localiza todos os produtos cuja descrição começa com o prefixo informado, sem diferenciar
+	 * maiúsculas e minúsculas. Os produtos são devolvidos em ordem alfabética de descrição.
+	 * @param prefixo Início da descrição procurada
+	 * @return Vetor com as linhas dos produtos encontrados (vazio, caso nenhum)
+	 */
+	public int[] localizarPorPrefixo(String prefixo) {
+		String[] chave = normalizar(prefixo);
+		int inicio = limiteInferior(chave);
+		int fim = inicio;
+		while (fim < quantidade && catalogo.descricaoComecaCom(linhasOrdenadas[fim], chave)) {
+			fim++;
+		}
+		return Arrays.copyOfRange(linhasOrdenadas, inicio, fim);
+	}
+
+	public int size() {
+		return quantidade;
+	}
+
+	/**
+	 * Normaliza a descrição procurada para comparação: sem espaços nas pontas, em minúsculas e separada em palavras.
+	 */
+	static String[] normalizar(String descricao) {
+		return DicionarioDescricoes.separarConsulta(descricao);
+	}
+
+	/**
+	 * Primeira posição cuja chave é maior ou igual à informada.
+	 */
+	private int limiteInferior(String[] chave) {
+		int inicio = 0, fim = quantidade;
+		while (inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if (catalogo.compararDescricao(linhasOrdenadas[meio], chave) < 0) {
+				inicio = meio + 1;
+			} else {
+				fim = meio;
+			}
+		}
+		return inicio;
+	}
+
+	/**
+	 * Primeira posição cuja chave é estritamente maior que a informada.
+	 */
+	private int limiteSuperior(String[] chave) {
+		int inicio = 0, fim = quantidade;
+		while (inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if (catalogo.compararDescricao(linhasOrdenadas[meio], chave) <= 0) {
+				inicio = meio + 1;
+			} else {
+				fim = meio;
+			}
+		}
+		return inicio;
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Índice de produtos por código identificador: associa cada código à linha do produto no catálogo em colunas.
+ * É uma tabela hash de endereçamento aberto (sondagem linear), no mesmo formato da TabelaInt, mas com
+ * as linhas guardadas em um vetor de int: nem as chaves nem os valores são objetos.
+ */
+public class IndiceProdutos {
+
+	/** Capacidade inicial da tabela (potência de 2) */
+	private static final int CAPACIDADE_INICIAL = 16;
+
+	private final ProdutoStore catalogo;
+	private int[] chaves;
+	/** Linha do produto de cada posição, mais 1; 0 indica posição livre */
+	private int[] linhas;
+	private int quantidade;
+
+	/**
+	 * Cria um índice vazio sobre o catálogo informado.
+	 * @param catalogo Catálogo cujas linhas serão indexadas
+	 */
+	public IndiceProdutos(ProdutoStore catalogo) {
+		this(catalogo, 0);
+	}
+
+	/**
+	 * Cria o índice já dimensionado para a quantidade esperada de produtos.
+	 * @param catalogo Catálogo cujas linhas serão indexadas
+	 * @param quantidadeEsperada Quantidade de produtos que se espera indexar
+	 */
+	public IndiceProdutos(ProdutoStore catalogo, int quantidadeEsperada) {
+		this.catalogo = catalogo;
+		int capacidade = CAPACIDADE_INICIAL;
+		while (capacidade < quantidadeEsperada * 2) {
+			capacidade *= 2;
+		}
+		chaves = new int[capacidade];
+		linhas = new int[capacidade];
+		quantidade = 0;
+	}
+
+	/**
+	 * Cria o índice com todas as linhas do catálogo.
+	 * @param catalogo Catálogo de produtos
+	 * @return O índice com os produtos do catálogo
+	 */
+	public static IndiceProdutos criar(ProdutoStore catalogo) {
+		int quantos = catalogo.size();
+		IndiceProdutos indice = new IndiceProdutos(catalogo, quantos);
+		for (int linha = 0; linha < quantos; linha++) {
+			indice.inserir(linha);
+		}
+		return indice;
+	}
+
+	public ProdutoStore catalogo() {
+		return catalogo;
+	}
+
+	/**
+	 * Inclui a linha do catálogo no índice. Se já houver um produto com o mesmo código, ele é substituído.
+	 * @param linha Linha do produto no catálogo
+	 */
+	public void inserir(int linha) {
+		int chave = catalogo.id(linha);
+		if ((quantidade + 1) * 2 > chaves.length) {
+			redimensionar(chaves.length * 2);
+		}
+		int posicao = posicaoDe(chave);
+		if (linhas[posicao] == 0) {
+			chaves[posicao] = chave;
+			quantidade++;
+		}
+		linhas[posicao] = linha + 1;
+	}
+
+	/**
+	 * Localiza a linha do produto pelo seu código identificador.
+	 * @param idProduto Código do produto
+	 * @return A linha do produto no catálogo, ou -1 caso não exista
+	 */
+	public int localizarLinha(int idProduto) {
+		return linhas[posicaoDe(idProduto)] - 1;
+	}
+
+	/**
+	 * Localiza o produto pelo seu código identificador.
+	 * @param idProduto Código do produto
+	 * @return O produto com o código informado, ou null caso não exista
+	 */
+	public Produto localizar(int idProduto) {
+		int linha = localizarLinha(idProduto);
+		return (linha < 0) ? null : catalogo.produto(linha);
+	}
+
+	public int size() {
+		return quantidade;
+	}
+
+	/**
+	 * Retorna a posição onde a chave está ou onde deveria ser inserida.
+	 */
+	private int posicaoDe(int chave) {
+		int mascara = chaves.length - 1;
+		int posicao = espalhar(chave) & mascara;
+		while (linhas[posicao] != 0 && chaves[posicao] != chave) {
+			posicao = (posicao + 1) & mascara;
+		}
+		return posicao;
+	}
+
+	/**
+	 * Mistura os bits da chave para que códigos sequenciais não formem agrupamentos na tabela.
+	 */
+	private static int espalhar(int chave) {
+		int h = chave * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void redimensionar(int novaCapacidade) {
+		int[] chavesAntigas = chaves;
+		int[] linhasAntigas = linhas;
+		chaves = new int[novaCapacidade];
+		linhas = new int[novaCapacidade];
+		for (int i = 0; i < chavesAntigas.length; i++) {
+			if (linhasAntigas[i] != 0) {
+				int posicao = posicaoDe(chavesAntigas[i]);
+				chaves[posicao] = chavesAntigas[i];
+				linhas[posicao] = linhasAntigas[i];
+			}
+		}
+	}
+}
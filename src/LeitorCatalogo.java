@@ -0,0 +1,622 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+/**
+ * Leitor rápido do arquivo de produtos. O arquivo é mapeado em memória e cada linha
+ * "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]" é interpretada diretamente
+ * a partir dos bytes, sem Scanner, split, expressões regulares ou cópias intermediárias,
+ * e acrescentada diretamente às colunas de um ProdutoStore, sem criar objetos Produto:
+ * apenas a descrição (String) de cada produto é criada. Preço de custo e margem de lucro são lidos
+ * direto em ponto fixo (centavos e pontos-base, arredondados HALF_UP como em Dinheiro), sem passar
+ * por double nem BigDecimal, e a validade direto em dias desde 01/01/1970.
+ * Os números aceitam tanto ponto quanto vírgula como separador decimal e as datas seguem o
+ * formato dd/MM/yyyy. Campos fora do formato esperado são interpretados pelo mesmo caminho
+ * de Produto.criarDoTexto, de modo que os produtos gerados são os mesmos.
+ *
+ * A leitura também calcula a impressão digital do arquivo (ProdutoStore.impressaoDigital): a quantidade
+ * de códigos distribuídos e o CRC32 do tipo, do código e da descrição de cada produto que recebeu um código,
+ * inclusive os perecíveis descartados por estarem vencidos. Como a validade não participa, a impressão
+ * só muda quando o arquivo passa a associar algum código a outro produto.
+ */
+public class LeitorCatalogo {
+
+	private static final byte SEPARADOR = ';';
+
+	/** Casas decimais dos valores em centavos e em pontos-base */
+	private static final int CASAS_CENTAVOS = 2;
+	private static final int CASAS_PONTOS_BASE = 4;
+
+	/** Limite dos dígitos lidos em ponto fixo; acima dele, mesmo com as casas completadas, o valor ainda cabe em um long */
+	private static final long LIMITE_PONTO_FIXO = 100_000_000_000_000L;
+
+	/** Tamanho mínimo, em bytes, de cada bloco da leitura paralela */
+	private static final int TAMANHO_MINIMO_BLOCO = 64 * 1024;
+
+	private final ByteBuffer dados;
+
+	/** Quantidade de produtos indicada na primeira linha */
+	private int numProdutos;
+
+	/** Início e fim (exclusivo) dos campos da linha em interpretação */
+	private final int[] inicioCampo = new int[5];
+	private final int[] fimCampo = new int[5];
+
+	/** Se o último valor lido por lerPontoFixo é maior que zero */
+	private boolean valorPositivo;
+
+	/** Identidade dos produtos que receberam código, na ordem do arquivo (ver impressaoDigital) */
+	private final CRC32 identidades = new CRC32();
+	private final ByteBuffer identidade = ByteBuffer.allocate(1 + 4);
+	/** Visão dos dados usada para acumular as descrições no CRC32 sem copiá-las */
+	private final ByteBuffer trechoDescricao;
+	private int codigosDistribuidos;
+
+	private LeitorCatalogo(ByteBuffer dados) {
+		this.dados = dados;
+		trechoDescricao = dados.duplicate();
+	}
+
+	/**
+	 * Lê o arquivo de produtos. A primeira linha deve conter a quantidade de produtos;
+	 * linhas em branco são ignoradas e linhas inválidas são informadas em System.err e descartadas.
+	 * @param arquivo Caminho do arquivo de produtos
+	 * @return Catálogo com os produtos lidos com sucesso, na ordem do arquivo
+	 * @throws IOException em caso de erro de leitura do arquivo
+	 * @throws IllegalArgumentException caso o arquivo esteja vazio ou a primeira linha não contenha uma quantidade válida
+	 */
+	public static ProdutoStore lerProdutos(Path arquivo) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			long tamanho = canal.size();
+			if (tamanho > Integer.MAX_VALUE) {
+				throw new IOException("Arquivo de produtos muito grande para ser mapeado: " + tamanho + " bytes.");
+			}
+			ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+			return new LeitorCatalogo(dados).lerProdutos();
+		}
+	}
+
+	/**
+	 * Lê os produtos de um bloco de bytes com o mesmo formato do arquivo de produtos.
+	 * @param dados Conteúdo do arquivo de produtos
+	 * @return Catálogo com os produtos lidos com sucesso, na ordem dos dados
+	 * @throws IllegalArgumentException caso os dados estejam vazios ou a primeira linha não contenha uma quantidade válida
+	 */
+	public static ProdutoStore lerProdutos(ByteBuffer dados) {
+		return new LeitorCatalogo(dados).lerProdutos();
+	}
+
+	/**
+	 * Lê o arquivo de produtos em paralelo. O arquivo é dividido em blocos nas quebras de linha e
+	 * cada bloco é interpretado por uma tarefa do ForkJoinPool comum; os produtos são então acrescentados
+	 * ao catálogo na ordem do arquivo, de modo que recebem exatamente os mesmos códigos de uma leitura sequencial.
+	 * @param arquivo Caminho do arquivo de produtos
+	 * @return Catálogo com os produtos lidos com sucesso, na ordem do arquivo
+	 * @throws IOException em caso de erro de leitura do arquivo
+	 * @throws IllegalArgumentException caso o arquivo esteja vazio ou a primeira linha não contenha uma quantidade válida
+	 */
+	public static ProdutoStore lerProdutosParalelo(Path arquivo) throws IOException {
+		return lerProdutosParalelo(arquivo, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Lê o arquivo de produtos em paralelo, usando o ForkJoinPool informado.
+	 * @see #lerProdutosParalelo(Path)
+	 */
+	public static ProdutoStore lerProdutosParalelo(Path arquivo, ForkJoinPool pool) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			long tamanho = canal.size();
+			if (tamanho > Integer.MAX_VALUE) {
+				throw new IOException("Arquivo de produtos muito grande para ser mapeado: " + tamanho + " bytes.");
+			}
+			ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+			return new LeitorCatalogo(dados).lerProdutosParalelo(pool);
+		}
+	}
+
+	private ProdutoStore lerProdutos() {
+		int posicao = lerCabecalho();
+		int limite = dados.limit();
+
+		ProdutoStore produtos = new ProdutoStore(numProdutos);
+		int produtosLidos = 0;
+		while (posicao < limite && produtosLidos < numProdutos) {
+			int fimLinha = fimDaLinha(posicao, limite);
+			int fimConteudo = semRetorno(posicao, fimLinha);
+			if (!emBranco(posicao, fimConteudo)) {
+				try {
+					adicionarProduto(produtos, posicao, fimConteudo);
+					produtosLidos++;
+				} catch (Exception e) {
+					informarErro(posicao, fimConteudo, e);
+				}
+			}
+			posicao = fimLinha + 1;
+		}
+
+		informarFaltantes(produtosLidos);
+		produtos.definirImpressaoDigital(impressaoDigital());
+		return produtos;
+	}
+
+	private ProdutoStore lerProdutosParalelo(ForkJoinPool pool) {
+		int posicao = lerCabecalho();
+		int limite = dados.limit();
+
+		// Divide o restante do arquivo em blocos terminados em quebras de linha
+		int tamanhoBloco = Math.max(TAMANHO_MINIMO_BLOCO, (limite - posicao) / (pool.getParallelism() * 4) + 1);
+		int quantidadeBlocos = 0;
+		InterpretacaoBloco[] tarefas = new InterpretacaoBloco[4];
+		while (posicao < limite) {
+			int fimBloco = (limite - posicao <= tamanhoBloco) ? limite : Math.min(limite, fimDaLinha(posicao + tamanhoBloco, limite) + 1);
+			if (quantidadeBlocos == tarefas.length) {
+				tarefas = Arrays.copyOf(tarefas, tarefas.length * 2);
+			}
+			tarefas[quantidadeBlocos++] = new InterpretacaoBloco(dados, posicao, fimBloco);
+			posicao = fimBloco;
+		}
+		for (int i = 0; i < quantidadeBlocos; i++) {
+			pool.execute(tarefas[i]);
+		}
+
+		// Acrescenta os produtos na ordem do arquivo, parando ao atingir a quantidade indicada, como na leitura sequencial
+		ProdutoStore produtos = new ProdutoStore(numProdutos);
+		int produtosLidos = 0;
+		for (int b = 0; b < quantidadeBlocos; b++) {
+			if (produtosLidos == numProdutos) {
+				tarefas[b].cancel(false);
+				continue;
+			}
+			BlocoInterpretado bloco = tarefas[b].join();
+			for (int i = 0; i < bloco.quantidade && produtosLidos < numProdutos; i++) {
+				try {
+					bloco.adicionarProduto(i, this, produtos);
+					produtosLidos++;
+				} catch (Exception e) {
+					informarErro(bloco.inicios[i], bloco.fins[i], e);
+				}
+			}
+		}
+
+		informarFaltantes(produtosLidos);
+		produtos.definirImpressaoDigital(impressaoDigital());
+		return produtos;
+	}
+
+	/**
+	 * Lê a primeira linha, com a quantidade de produtos.
+	 * @return Posição do início da segunda linha
+	 */
+	private int lerCabecalho() {
+		int posicao = dados.position();
+		int limite = dados.limit();
+
+		// Marca de ordem de bytes do UTF-8, se houver
+		if (limite - posicao >= 3 && dados.get(posicao) == (byte) 0xEF
+				&& dados.get(posicao + 1) == (byte) 0xBB && dados.get(posicao + 2) == (byte) 0xBF) {
+			posicao += 3;
+		}
+
+		if (posicao >= limite) {
+			throw new IllegalArgumentException("Arquivo de produtos está vazio.");
+		}
+
+		int fimLinha = fimDaLinha(posicao, limite);
+		String primeiraLinha = texto(posicao, semRetorno(posicao, fimLinha));
+		try {
+			numProdutos = Integer.parseInt(primeiraLinha);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("A primeira linha do arquivo ('" + primeiraLinha + "') não contém um número válido de produtos.");
+		}
+		if (numProdutos < 0) {
+			throw new IllegalArgumentException("Quantidade de produtos no arquivo (" + numProdutos + ") é inválida.");
+		}
+		return fimLinha + 1;
+	}
+
+	private void informarFaltantes(int produtosLidos) {
+		if (produtosLidos < numProdutos) {
+			System.out.println("Aviso: O arquivo indicava " + numProdutos + " produtos, mas apenas " + produtosLidos + " foram lidos ou processados corretamente.");
+		}
+	}
+
+	private void informarErro(int inicio, int fim, Exception e) {
+		System.err.println("Erro ao processar linha do produto: '" + texto(inicio, fim) + "'. Erro: " + e.getMessage());
+	}
+
+	/**
+	 * Acrescenta ao catálogo o produto descrito pelos bytes [inicio, fim) — uma linha sem a quebra de linha.
+	 */
+	private void adicionarProduto(ProdutoStore catalogo, int inicio, int fim) {
+		int campos = separarCampos(inicio, fim);
+		int tipo = (campos < 4) ? 0 : lerInteiro(0);
+		if (campos < 4 || (tipo == 2 && campos < 5)) {
+			// Mesmo erro que o split de Produto.criarDoTexto produziria
+			Produto produto = Produto.criarDoTexto(texto(inicio, fim));
+			registrarIdentidade(produto instanceof ProdutoPerecivel ? ProdutoStore.TIPO_PERECIVEL : ProdutoStore.TIPO_NAO_PERECIVEL,
+					produto.idProduto, inicioCampo[1], fimCampo[1]);
+			catalogo.adicionar(produto);
+			return;
+		}
+
+		String descricao = texto(inicioCampo[1], fimCampo[1]);
+		long precoCustoCentavos = lerPontoFixo(2, CASAS_CENTAVOS);
+		boolean precoCustoPositivo = valorPositivo;
+		long margemLucroPontosBase = lerPontoFixo(3, CASAS_PONTOS_BASE);
+		boolean margemLucroPositiva = valorPositivo;
+		int validade = (tipo == 2) ? lerData(4) : 0;
+		Produto.validar(descricao, precoCustoPositivo, margemLucroPositiva);
+		adicionarProduto(catalogo, tipo, descricao, inicioCampo[1], fimCampo[1], precoCustoCentavos, margemLucroPontosBase,
+				validade);
+	}
+
+	/**
+	 * Acrescenta ao catálogo o produto com os campos já interpretados e validados, com as mesmas regras (e os mesmos
+	 * erros) dos construtores de ProdutoNaoPerecivel e ProdutoPerecivel. Um perecível vencido consome
+	 * seu código antes de ser recusado, como no construtor, e entra na impressão digital.
+	 * @param inicioDescricao Início, nos dados, dos bytes da descrição
+	 * @param fimDescricao Fim (exclusivo), nos dados, dos bytes da descrição
+	 * @param validade Validade em dias desde 01/01/1970 (ignorada para não perecíveis)
+	 */
+	private void adicionarProduto(ProdutoStore catalogo, int tipo, String descricao, int inicioDescricao, int fimDescricao,
+			long precoCustoCentavos, long margemLucroPontosBase, int validade) {
+		int idProduto = Produto.novoID();
+		registrarIdentidade((tipo == 2) ? ProdutoStore.TIPO_PERECIVEL : ProdutoStore.TIPO_NAO_PERECIVEL, idProduto,
+				inicioDescricao, fimDescricao);
+		if (tipo == 2) {
+			ProdutoPerecivel.verificarValidade(validade);
+			catalogo.adicionar(ProdutoStore.TIPO_PERECIVEL, idProduto, descricao, precoCustoCentavos, margemLucroPontosBase,
+					validade);
+		} else {
+			catalogo.adicionar(ProdutoStore.TIPO_NAO_PERECIVEL, idProduto, descricao, precoCustoCentavos, margemLucroPontosBase, 0);
+		}
+	}
+
+	/**
+	 * Acumula na impressão digital a identidade de um produto que recebeu código.
+	 */
+	private void registrarIdentidade(byte tipo, int idProduto, int inicioDescricao, int fimDescricao) {
+		identidade.clear();
+		identidade.put(tipo);
+		identidade.putInt(idProduto);
+		identidades.update(identidade.array(), 0, identidade.position());
+		trechoDescricao.limit(fimDescricao).position(inicioDescricao);
+		identidades.update(trechoDescricao);
+		codigosDistribuidos++;
+	}
+
+	/**
+	 * @return Quantidade de códigos distribuídos (32 bits mais altos) e CRC32 das identidades (32 bits mais baixos)
+	 */
+	private long impressaoDigital() {
+		return ((long) codigosDistribuidos << 32) | identidades.getValue();
+	}
+
+	/**
+	 * Interpreta os campos da linha [inicio, fim) sem criar o produto. Linhas fora do formato
+	 * esperado, ou cujos campos não puderam ser interpretados ou validados, são marcadas para serem
+	 * reprocessadas por adicionarProduto, que reproduz o comportamento (e os erros) da leitura sequencial.
+	 */
+	private void interpretar(int inicio, int fim, BlocoInterpretado bloco) {
+		try {
+			int campos = separarCampos(inicio, fim);
+			if (campos >= 4) {
+				int tipo = lerInteiro(0);
+				if (tipo != 2 || campos >= 5) {
+					String descricao = texto(inicioCampo[1], fimCampo[1]);
+					long precoCustoCentavos = lerPontoFixo(2, CASAS_CENTAVOS);
+					boolean precoCustoPositivo = valorPositivo;
+					long margemLucroPontosBase = lerPontoFixo(3, CASAS_PONTOS_BASE);
+					boolean margemLucroPositiva = valorPositivo;
+					int validade = (tipo == 2) ? lerData(4) : 0;
+					Produto.validar(descricao, precoCustoPositivo, margemLucroPositiva);
+					bloco.adicionar(inicio, fim, tipo, descricao, inicioCampo[1], fimCampo[1], precoCustoCentavos,
+							margemLucroPontosBase, validade);
+					return;
+				}
+			}
+		} catch (RuntimeException e) {
+			// Reprocessada na criação, para que o erro seja informado na ordem do arquivo
+		}
+		bloco.adicionarParaReprocessar(inicio, fim);
+	}
+
+	/**
+	 * Localiza os até 5 primeiros campos da linha, separados por ';'.
+	 * Assim como String.split, campos vazios ao final da linha são desconsiderados.
+	 * @return Quantidade de campos encontrados
+	 */
+	private int separarCampos(int inicio, int fim) {
+		int campos = 0;
+		int inicioAtual = inicio;
+		for (int i = inicio; i < fim && campos < inicioCampo.length; i++) {
+			if (dados.get(i) == SEPARADOR) {
+				inicioCampo[campos] = inicioAtual;
+				fimCampo[campos] = i;
+				campos++;
+				inicioAtual = i + 1;
+			}
+		}
+		if (campos < inicioCampo.length) {
+			inicioCampo[campos] = inicioAtual;
+			fimCampo[campos] = fim;
+			campos++;
+		}
+		while (campos > 0 && inicioCampo[campos - 1] == fimCampo[campos - 1]) {
+			campos--;
+		}
+		return campos;
+	}
+
+	private int lerInteiro(int campo) {
+		int inicio = inicioCampo[campo], fim = fimCampo[campo];
+		if (fim - inicio < 1 || fim - inicio > 9) {
+			return Integer.parseInt(texto(inicio, fim));
+		}
+		int valor = 0;
+		for (int i = inicio; i < fim; i++) {
+			int digito = dados.get(i) - '0';
+			if (digito < 0 || digito > 9) {
+				return Integer.parseInt(texto(inicio, fim));
+			}
+			valor = valor * 10 + digito;
+		}
+		return valor;
+	}
+
+	/**
+	 * Lê um número decimal no formato [dígitos][(.|,)dígitos] direto em ponto fixo: o valor multiplicado
+	 * por 10^casas, arredondado HALF_UP pela primeira casa descartada, como Dinheiro.centavos e
+	 * Dinheiro.pontosBase fazem com o mesmo texto. Registra em valorPositivo se o valor lido é maior que zero.
+	 */
+	private long lerPontoFixo(int campo, int casas) {
+		int inicio = inicioCampo[campo], fim = fimCampo[campo];
+		long valor = 0;
+		int casasLidas = 0;
+		int primeiraDescartada = -1;
+		boolean separador = false;
+		boolean algumDigito = false;
+		boolean positivo = false;
+
+		for (int i = inicio; i < fim; i++) {
+			byte b = dados.get(i);
+			if (b >= '0' && b <= '9') {
+				algumDigito = true;
+				positivo |= (b != '0');
+				if (separador && casasLidas == casas) {
+					if (primeiraDescartada < 0) {
+						primeiraDescartada = b - '0';
+					}
+					continue;
+				}
+				valor = valor * 10 + (b - '0');
+				if (separador) {
+					casasLidas++;
+				}
+				if (valor >= LIMITE_PONTO_FIXO) {
+					return lerPontoFixoTexto(inicio, fim, casas);
+				}
+			} else if ((b == '.' || b == ',') && !separador) {
+				separador = true;
+			} else {
+				return lerPontoFixoTexto(inicio, fim, casas);
+			}
+		}
+		if (!algumDigito) {
+			return lerPontoFixoTexto(inicio, fim, casas);
+		}
+		for (; casasLidas < casas; casasLidas++) {
+			valor *= 10;
+		}
+		if (primeiraDescartada >= 5) {
+			valor++;
+		}
+		valorPositivo = positivo;
+		return valor;
+	}
+
+	/**
+	 * Lê, pelo mesmo caminho de Produto.criarDoTexto, um número fora do formato de lerPontoFixo
+	 * (com sinal, expoente, espaços ou dígitos demais) e o converte com Dinheiro.
+	 */
+	private long lerPontoFixoTexto(int inicio, int fim, int casas) {
+		double valor = Double.parseDouble(texto(inicio, fim).replace(",", "."));
+		valorPositivo = valor > 0.0;
+		if (!valorPositivo) {
+			// Recusado na validação, antes de qualquer conversão
+			return 0;
+		}
+		return (casas == CASAS_CENTAVOS) ? Dinheiro.centavos(valor) : Dinheiro.pontosBase(valor);
+	}
+
+	/**
+	 * Lê uma data no formato dd/MM/yyyy.
+	 * @return A data em dias desde 01/01/1970
+	 */
+	private int lerData(int campo) {
+		int inicio = inicioCampo[campo], fim = fimCampo[campo];
+		if (fim - inicio == 10 && dados.get(inicio + 2) == '/' && dados.get(inicio + 5) == '/') {
+			int dia = digitos(inicio, 2);
+			int mes = digitos(inicio + 3, 2);
+			int ano = digitos(inicio + 6, 4);
+			if (ano >= 0 && mes >= 1 && mes <= 12 && dia >= 1 && dia <= Month.of(mes).length(Year.isLeap(ano))) {
+				return diasDesde1970(ano, mes, dia);
+			}
+		}
+		// Fora do padrão: mesmo tratamento (e mesma mensagem de erro) de Produto.criarDoTexto
+		return Math.toIntExact(LocalDate.parse(texto(inicio, fim), Produto.FORMATO_DATA).toEpochDay());
+	}
+
+	/**
+	 * Conta os dias de 01/01/1970 até a data informada no calendário gregoriano, com o mesmo resultado de
+	 * LocalDate.toEpochDay, sem criar a data. Os anos são contados a partir de março, para que o dia
+	 * extra de fevereiro fique no fim do ano, em ciclos de 400 anos (146097 dias).
+	 */
+	private static int diasDesde1970(int ano, int mes, int dia) {
+		int anoDesdeMarco = (mes <= 2) ? ano - 1 : ano;
+		int ciclo = Math.floorDiv(anoDesdeMarco, 400);
+		int anoDoCiclo = anoDesdeMarco - ciclo * 400;
+		int diaDoAno = (153 * ((mes > 2) ? mes - 3 : mes + 9) + 2) / 5 + dia - 1;
+		int diaDoCiclo = anoDoCiclo * 365 + anoDoCiclo / 4 - anoDoCiclo / 100 + diaDoAno;
+		// 719468: dias de 01/03/0000 até 01/01/1970
+		return ciclo * 146097 + diaDoCiclo - 719468;
+	}
+
+	/**
+	 * Converte uma sequência de dígitos decimais; retorna -1 se algum byte não for dígito.
+	 */
+	private int digitos(int inicio, int quantidade) {
+		int valor = 0;
+		for (int i = inicio; i < inicio + quantidade; i++) {
+			int digito = dados.get(i) - '0';
+			if (digito < 0 || digito > 9) {
+				return -1;
+			}
+			valor = valor * 10 + digito;
+		}
+		return valor;
+	}
+
+	private int fimDaLinha(int inicio, int limite) {
+		int i = inicio;
+		while (i < limite && dados.get(i) != '\n') {
+			i++;
+		}
+		return i;
+	}
+
+	private int semRetorno(int inicio, int fim) {
+		return (fim > inicio && dados.get(fim - 1) == '\r') ? fim - 1 : fim;
+	}
+
+	private boolean emBranco(int inicio, int fim) {
+		for (int i = inicio; i < fim; i++) {
+			// Mesmo critério de String.trim: bytes até o espaço (inclusive) são considerados brancos
+			if ((dados.get(i) & 0xFF) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String texto(int inicio, int fim) {
+		byte[] bytes = new byte[fim - inicio];
+		dados.get(inicio, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Tarefa que interpreta as linhas de um bloco do arquivo, com seu próprio leitor.
+	 */
+	private static final class InterpretacaoBloco extends RecursiveTask<BlocoInterpretado> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient ByteBuffer dados;
+		private final int inicio;
+		private final int fim;
+
+		InterpretacaoBloco(ByteBuffer dados, int inicio, int fim) {
+			this.dados = dados;
+			this.inicio = inicio;
+			this.fim = fim;
+		}
+
+		@Override
+		protected BlocoInterpretado compute() {
+			LeitorCatalogo leitor = new LeitorCatalogo(dados);
+			BlocoInterpretado bloco = new BlocoInterpretado();
+			int posicao = inicio;
+			while (posicao < fim) {
+				int fimLinha = leitor.fimDaLinha(posicao, fim);
+				int fimConteudo = leitor.semRetorno(posicao, fimLinha);
+				if (!leitor.emBranco(posicao, fimConteudo)) {
+					leitor.interpretar(posicao, fimConteudo, bloco);
+				}
+				posicao = fimLinha + 1;
+			}
+			return bloco;
+		}
+	}
+
+	/**
+	 * Campos já interpretados das linhas não vazias de um bloco, em colunas e na ordem do arquivo.
+	 */
+	private static final class BlocoInterpretado {
+
+		int quantidade = 0;
+		int[] inicios = new int[64];
+		int[] fins = new int[64];
+		boolean[] reprocessar = new boolean[64];
+		int[] tipos = new int[64];
+		String[] descricoes = new String[64];
+		int[] iniciosDescricao = new int[64];
+		int[] finsDescricao = new int[64];
+		long[] precosCusto = new long[64];
+		long[] margensLucro = new long[64];
+		/** Validade em dias desde 01/01/1970 */
+		int[] validades = new int[64];
+
+		void adicionar(int inicio, int fim, int tipo, String descricao, int inicioDescricao, int fimDescricao,
+				long precoCusto, long margemLucro, int validade) {
+			garantirEspaco();
+			inicios[quantidade] = inicio;
+			fins[quantidade] = fim;
+			tipos[quantidade] = tipo;
+			descricoes[quantidade] = descricao;
+			iniciosDescricao[quantidade] = inicioDescricao;
+			finsDescricao[quantidade] = fimDescricao;
+			precosCusto[quantidade] = precoCusto;
+			margensLucro[quantidade] = margemLucro;
+			validades[quantidade] = validade;
+			quantidade++;
+		}
+
+		void adicionarParaReprocessar(int inicio, int fim) {
+			garantirEspaco();
+			inicios[quantidade] = inicio;
+			fins[quantidade] = fim;
+			reprocessar[quantidade] = true;
+			quantidade++;
+		}
+
+		/**
+		 * Acrescenta ao catálogo o produto da linha informada. Deve ser chamado na ordem do arquivo,
+		 * pois atribui o código do produto.
+		 */
+		void adicionarProduto(int linha, LeitorCatalogo leitor, ProdutoStore catalogo) {
+			if (reprocessar[linha]) {
+				leitor.adicionarProduto(catalogo, inicios[linha], fins[linha]);
+				return;
+			}
+			leitor.adicionarProduto(catalogo, tipos[linha], descricoes[linha], iniciosDescricao[linha], finsDescricao[linha],
+					precosCusto[linha], margensLucro[linha], validades[linha]);
+		}
+
+		private void garantirEspaco() {
+			if (quantidade == inicios.length) {
+				int novaCapacidade = quantidade * 2;
+				inicios = Arrays.copyOf(inicios, novaCapacidade);
+				fins = Arrays.copyOf(fins, novaCapacidade);
+				reprocessar = Arrays.copyOf(reprocessar, novaCapacidade);
+				tipos = Arrays.copyOf(tipos, novaCapacidade);
+				descricoes = Arrays.copyOf(descricoes, novaCapacidade);
+				iniciosDescricao = Arrays.copyOf(iniciosDescricao, novaCapacidade);
+				finsDescricao = Arrays.copyOf(finsDescricao, novaCapacidade);
+				precosCusto = Arrays.copyOf(precosCusto, novaCapacidade);
+				margensLucro = Arrays.copyOf(margensLucro, novaCapacidade);
+				validades = Arrays.copyOf(validades, novaCapacidade);
+			}
+		}
+	}
+}
@@ -1,7 +1,6 @@
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 public class Pedido implements Comparable<Pedido>{
 
@@ -9,74 +8,224 @@ public class Pedido implements Comparable<Pedido>{
 	
 	private int idPedido;
 	
-	/** Quantidade máxima de produtos de um pedido */
-	public static final int MAX_PRODUTOS = 10;
+	/** Capacidade inicial dos vetores de itens; dobra sempre que necessário */
+	private static final int CAPACIDADE_INICIAL_ITENS = 2;
 	
-	/** Porcentagem de desconto para pagamentos à vista */
-	private static final double DESCONTO_PG_A_VISTA = 0.15;
+	/** Desconto para pagamentos à vista: 15% (em pontos-base) */
+	private static final long DESCONTO_PG_A_VISTA_PONTOS_BASE = 1_500;
 	
-	/** Vetor para armazenar os produtos do pedido */
-	private Produto[] produtos;
+	/** Catálogo em colunas onde estão os produtos dos itens */
+	private final ProdutoStore catalogo;
+	
+	/** Indica se o catálogo pertence a este pedido (pedido avulso, que guarda uma cópia de cada produto incluído) */
+	private final boolean catalogoProprio;
+	
+	/** Linha, no catálogo, do produto de cada item; cada produto ocupa um único item */
+	private int[] linhas;
+	
+	/** Quantidade de unidades de cada item, na mesma posição do produto */
+	private int[] quantidades;
+	
+	/** Quantidade de itens (produtos distintos) no pedido */
+	private int quantItens = 0;
 	
 	/** Data de criação do pedido */
 	private LocalDate dataPedido;
 	
-	/** Indica a quantidade total de produtos no pedido até o momento */
+	/** Indica a quantidade total de produtos (unidades) no pedido até o momento */
 	private int quantProdutos = 0;
 	
 	/** Indica a forma de pagamento do pedido sendo: 1, pagamento à vista; 2, pagamento parcelado */
 	private int formaDePagamento;
 	
-	/** Construtor do pedido.
-	 *  Deve criar o vetor de produtos do pedido, 
+	/**
+	 * Valor final já calculado do pedido e o dia (do relógio de preços) a que ele se refere, pois o preço de
+	 * perecíveis varia com a data. Null indica que precisa ser (re)calculado. Valor e dia são publicados juntos,
+	 * em um único objeto imutável, para que leitores sem trava (retratos da fila) nunca vejam um sem o outro.
+	 */
+	private volatile ValorDoDia valorDoDia;
+	
+	private static final class ValorDoDia {
+		final long dia;
+		final long valor;
+		
+		ValorDoDia(long dia, long valor) {
+			this.dia = dia;
+			this.valor = valor;
+		}
+	}
+	
+	/** Construtor do pedido avulso, sem catálogo: cada produto incluído é copiado para um catálogo próprio do pedido.
+	 *  Deve criar os vetores de itens do pedido, 
 	 *  armazenar a data, o código identificador e a forma de pagamento informados para o pedido. 
 	 */  
 	public Pedido(LocalDate dataPedido, int formaDePagamento) {
 		
-		idPedido = ultimoID++;
-		produtos = new Produto[MAX_PRODUTOS];
+		this(new ProdutoStore(CAPACIDADE_INICIAL_ITENS), true, ultimoID++, dataPedido, formaDePagamento);
+	}
+	
+	/** Construtor do pedido de produtos de um catálogo: os itens guardam apenas as linhas dos produtos no catálogo.
+	 *  @param catalogo Catálogo dos produtos que podem ser incluídos no pedido
+	 */
+	public Pedido(ProdutoStore catalogo, LocalDate dataPedido, int formaDePagamento) {
+		
+		this(catalogo, false, ultimoID++, dataPedido, formaDePagamento);
+	}
+	
+	/**
+	 * Recria um pedido já finalizado com o código informado (por exemplo, ao reler o diário de pedidos)
+	 * e avança o contador, para que os próximos pedidos não repitam o código.
+	 */
+	Pedido(ProdutoStore catalogo, int idPedido, LocalDate dataPedido, int formaDePagamento) {
+		
+		this(catalogo, false, idPedido, dataPedido, formaDePagamento);
+		avancarID(idPedido + 1);
+	}
+	
+	private Pedido(ProdutoStore catalogo, boolean catalogoProprio, int idPedido, LocalDate dataPedido, int formaDePagamento) {
+		
+		this.idPedido = idPedido;
+		this.catalogo = catalogo;
+		this.catalogoProprio = catalogoProprio;
+		linhas = new int[CAPACIDADE_INICIAL_ITENS];
+		quantidades = new int[CAPACIDADE_INICIAL_ITENS];
+		quantItens = 0;
 		quantProdutos = 0;
 		this.dataPedido = dataPedido;
 		this.formaDePagamento = formaDePagamento;
 	}
 	
 	/**
-     * Inclui um produto neste pedido e aumenta a quantidade de produtos armazenados no pedido até o momento.
+	 * Retorna o código que será dado ao próximo pedido criado.
+	 */
+	static int proximoID() {
+		return ultimoID;
+	}
+	
+	/**
+	 * Garante que o próximo pedido criado receba um código igual ou posterior ao informado.
+	 */
+	static void avancarID(int proximo) {
+		ultimoID = Math.max(ultimoID, proximo);
+	}
+	
+	/**
+     * Inclui uma unidade do produto neste pedido e aumenta a quantidade de produtos armazenados no pedido até o momento.
      * @param novo O produto a ser incluído no pedido
      * @return true/false indicando se a inclusão do produto no pedido foi realizada com sucesso.
      */
 	public boolean incluirProduto(Produto novo) {
 		
-		if (quantProdutos < MAX_PRODUTOS) {
-			produtos[quantProdutos++] = novo;
-			return true;
+		return incluirProduto(novo, 1);
+	}
+	
+	/**
+     * Inclui unidades do produto neste pedido. Se o produto já estiver no pedido, apenas soma a quantidade
+     * ao item existente; caso contrário, cria um novo item. Não há limite para a quantidade de itens.
+     * Um pedido de catálogo aceita apenas produtos obtidos do seu catálogo (ProdutoStore.produto);
+     * um pedido avulso aceita qualquer produto.
+     * @param novo O produto a ser incluído no pedido
+     * @param quantidade Quantidade de unidades a incluir (mínimo 1)
+     * @return true/false indicando se a inclusão do produto no pedido foi realizada com sucesso
+     * (false caso o produto seja nulo, a quantidade não seja positiva ou o produto seja de outro catálogo).
+     */
+	public boolean incluirProduto(Produto novo, int quantidade) {
+		
+		if (novo == null || quantidade < 1) {
+			return false;
+		}
+		int linha;
+		if (novo.catalogo == catalogo) {
+			linha = novo.linha;
+		} else if (catalogoProprio) {
+			linha = catalogo.procurar(novo.idProduto);
+			if (linha < 0) {
+				linha = catalogo.adicionar(novo);
+			}
+		} else {
+			return false;
+		}
+		return incluirLinha(linha, quantidade);
+	}
+	
+	/**
+     * Inclui unidades do produto da linha informada do catálogo do pedido, sem criar objetos Produto.
+     * @param linha Linha do produto no catálogo do pedido
+     * @param quantidade Quantidade de unidades a incluir (mínimo 1)
+     * @return true/false indicando se a inclusão do produto no pedido foi realizada com sucesso
+     * (false caso a linha não exista no catálogo ou a quantidade não seja positiva).
+     */
+	public boolean incluirLinha(int linha, int quantidade) {
+		
+		if (linha < 0 || linha >= catalogo.size() || quantidade < 1) {
+			return false;
+		}
+		int item = 0;
+		while (item < quantItens && linhas[item] != linha) {
+			item++;
+		}
+		if (item == quantItens) {
+			if (quantItens == linhas.length) {
+				linhas = Arrays.copyOf(linhas, quantItens * 2);
+				quantidades = Arrays.copyOf(quantidades, quantItens * 2);
+			}
+			linhas[item] = linha;
+			quantidades[item] = 0;
+			quantItens++;
 		}
-		return false;
+		quantidades[item] = Math.addExact(quantidades[item], quantidade);
+		quantProdutos = Math.addExact(quantProdutos, quantidade);
+		valorDoDia = null;
+		return true;
 	}
 	
 	/**
-     * Calcula e retorna o valor final do pedido (soma do valor de venda de todos os produtos do pedido).
+     * Retorna o valor final do pedido (soma, para cada item, da quantidade vezes o valor de venda do produto).
      * Caso a forma de pagamento do pedido seja à vista, aplica o desconto correspondente.
      * @return Valor final do pedido (double)
      */
 	public double valorFinal() {
 		
-		double valorPedido = 0;
-		BigDecimal valorPedidoBD;
+		return Dinheiro.reais(valorFinalCentavos());
+	}
+	
+	/**
+     * Retorna o valor final do pedido em centavos, calculado em ponto fixo e arredondado para o centavo (HALF_UP).
+     * O valor é calculado apenas na primeira chamada após cada alteração dos produtos do pedido
+     * ou após a virada do dia no relógio de preços.
+     * @return Valor final do pedido, em centavos
+     */
+	public long valorFinalCentavos() {
 		
-		for (int i = 0; i < quantProdutos; i++) {
-			valorPedido += produtos[i].valorDeVenda();
+		long hoje = RelogioPrecos.diaAtual();
+		ValorDoDia calculado = valorDoDia;
+		if (calculado == null || calculado.dia != hoje) {
+			calculado = new ValorDoDia(hoje, calcularValorFinal(hoje));
+			valorDoDia = calculado;
+		}
+		return calculado.valor;
+	}
+	
+	/**
+     * Calcula o valor final do pedido, em centavos, diretamente das colunas do catálogo.
+     * Os valores de venda dos produtos já estão em centavos, então a soma é exata e apenas
+     * o desconto à vista exige arredondamento.
+     * @param hoje Dia da venda, em dias desde 01/01/1970
+     * @return Valor final do pedido, em centavos
+     */
+	private long calcularValorFinal(long hoje) {
+		
+		long valorPedido = 0;
+		
+		for (int i = 0; i < quantItens; i++) {
+			valorPedido = Math.addExact(valorPedido, Math.multiplyExact(quantidades[i], catalogo.valorDeVendaCentavos(linhas[i], hoje)));
 		}
 		
 		if (formaDePagamento == 1) {
-			valorPedido = valorPedido * (1.0 - DESCONTO_PG_A_VISTA);
+			valorPedido = Dinheiro.descontar(valorPedido, DESCONTO_PG_A_VISTA_PONTOS_BASE);
 		}
 		
-		valorPedidoBD = new BigDecimal(Double.toString(valorPedido));
-        
-		valorPedidoBD = valorPedidoBD.setScale(2, RoundingMode.HALF_UP);
-        
-        return valorPedidoBD.doubleValue();
+		return valorPedido;
 	}
 	
 	/**
@@ -109,18 +258,21 @@ public class Pedido implements Comparable<Pedido>{
 		
 		stringPedido.append("Pedido com " + quantProdutos + " produtos.\n");
 		stringPedido.append("Produtos no pedido:\n");
-		for (int i = 0; i < quantProdutos; i++ ) {
-			stringPedido.append(produtos[i].toString() + "\n");
+		for (int i = 0; i < quantItens; i++ ) {
+			if (quantidades[i] > 1) {
+				stringPedido.append(quantidades[i] + " x ");
+			}
+			stringPedido.append(catalogo.produto(linhas[i]).toString() + "\n");
 		}
 		
 		stringPedido.append("Pedido pago ");
 		if (formaDePagamento == 1) {
-			stringPedido.append("à vista. Percentual de desconto: " + String.format("%.2f", DESCONTO_PG_A_VISTA * 100) + "%\n");
+			stringPedido.append("à vista. Percentual de desconto: " + String.format("%.2f", DESCONTO_PG_A_VISTA_PONTOS_BASE / 100.0) + "%\n");
 		} else {
 			stringPedido.append("parcelado.\n");
 		}
 		
-		stringPedido.append("Valor total do pedido: R$ " + String.format("%.2f", valorFinal()));
+		stringPedido.append("Valor total do pedido: R$ " + Dinheiro.formatar(valorFinalCentavos()));
 		
 		return stringPedido.toString();
 	}
@@ -152,11 +304,85 @@ public class Pedido implements Comparable<Pedido>{
     	return idPedido;
     }
     
+    /**
+     * Retorna a forma de pagamento: 1, pagamento à vista; 2, pagamento parcelado.
+     */
+    public int getFormaDePagamento() {
+    	return formaDePagamento;
+    }
+    
     public int getQuantosProdutos() {
     	return quantProdutos;
     }
     
+    /**
+     * Retorna a quantidade de itens (produtos distintos) do pedido.
+     */
+    public int getQuantosItens() {
+    	return quantItens;
+    }
+    
+    /**
+     * Retorna o código do produto do item informado.
+     * @param item Posição do item, entre 0 e getQuantosItens() - 1
+     */
+    public int getIdProduto(int item) {
+    	verificarItem(item);
+    	return catalogo.id(linhas[item]);
+    }
+    
+    /**
+     * Retorna a quantidade de unidades do item informado.
+     * @param item Posição do item, entre 0 e getQuantosItens() - 1
+     */
+    public int getQuantidade(int item) {
+    	verificarItem(item);
+    	return quantidades[item];
+    }
+    
+    /**
+     * Retorna a linha, no catálogo do pedido, do produto do item informado.
+     * @param item Posição do item, entre 0 e getQuantosItens() - 1
+     */
+    public int getLinha(int item) {
+    	verificarItem(item);
+    	return linhas[item];
+    }
+    
+    /**
+     * Retorna o catálogo em colunas onde estão os produtos do pedido.
+     */
+    public ProdutoStore getCatalogo() {
+    	return catalogo;
+    }
+    
+    /**
+     * Retorna o produto do item informado, criado a partir do catálogo do pedido.
+     * @param item Posição do item, entre 0 e getQuantosItens() - 1
+     */
+    public Produto getProduto(int item) {
+    	verificarItem(item);
+    	return catalogo.produto(linhas[item]);
+    }
+    
+    /**
+     * Retorna os produtos do pedido, com uma referência para cada unidade (um produto com quantidade 3
+     * aparece três vezes), na ordem dos itens. O vetor é uma cópia com getQuantosProdutos() posições.
+     * Para percorrer os itens sem repetições, use getQuantosItens, getProduto e getQuantidade.
+     */
     public Produto[] getProdutos() {
-    	return produtos;
+    	Produto[] unidades = new Produto[quantProdutos];
+    	int posicao = 0;
+    	for (int i = 0; i < quantItens; i++) {
+    		Arrays.fill(unidades, posicao, posicao + quantidades[i], catalogo.produto(linhas[i]));
+    		posicao += quantidades[i];
+    	}
+    	return unidades;
+    }
+    
+    private void verificarItem(int item) {
+    	if (item < 0 || item >= quantItens) {
+    		throw new IndexOutOfBoundsException("Item " + item + " inválido. Quantidade de itens: " + quantItens);
+    	}
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Consultas sobre os primeiros elementos de uma estrutura percorrida pelo seu iterador.
+ * Usadas pelas estruturas persistentes (FilaPersistente, PilhaPersistente), que não expõem células
+ * nem vetor para serem percorridos diretamente; a ordem é a do iterador de cada estrutura.
+ */
+final class Percursos {
+
+	private Percursos() {
+	}
+
+	/**
+	 * Calcula a média da métrica dos primeiros elementos. Métricas nulas contam como zero.
+	 * @param elementos Estrutura a percorrer
+	 * @param tamanho Quantidade de elementos da estrutura
+	 * @param nome Nome da estrutura nas mensagens de erro ("fila", "pilha")
+	 * @throws IllegalArgumentException caso a quantidade não esteja entre 1 e tamanho
+	 */
+	static <E> double calcularValorMedio(Iterable<E> elementos, int tamanho, String nome,
+			Function<E, Double> extrator, int quantidade) {
+
+		if (quantidade <= 0) {
+			throw new IllegalArgumentException("A quantidade deve ser um número positivo.");
+		}
+		if (quantidade > tamanho) {
+			throw new IllegalArgumentException("A " + nome + " não contém " + quantidade + " elementos. Tamanho atual: " + tamanho);
+		}
+
+		double soma = 0.0;
+		int contador = 0;
+		for (E item : elementos) {
+			if (contador == quantidade) {
+				break;
+			}
+			Double valor = extrator.apply(item);
+			if (valor != null) {
+				soma += valor;
+			}
+			contador++;
+		}
+		return soma / quantidade;
+	}
+
+	/**
+	 * Percorre os primeiros elementos e entrega ao consumidor, em ordem, os que atendem à condição.
+	 * @return A quantidade de elementos entregues ao consumidor
+	 * @throws IllegalArgumentException caso a quantidade seja negativa
+	 */
+	static <E> int filtrar(Iterable<E> elementos, Predicate<E> condicional, int quantidade, Consumer<? super E> consumidor) {
+
+		if (quantidade < 0) {
+			throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+		}
+
+		int contador = 0;
+		int entregues = 0;
+		for (E item : elementos) {
+			if (contador == quantidade) {
+				break;
+			}
+			if (condicional.test(item)) {
+				consumidor.accept(item);
+				entregues++;
+			}
+			contador++;
+		}
+		return entregues;
+	}
+}
@@ -1,35 +1,150 @@
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.Iterator;
+import java.util.LongSummaryStatistics;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Pilha<E> {
+public class Pilha<E> implements Iterable<E> {
 
+	/**
+	 * Topo da pilha. Empilhar cria uma célula acima do topo e desempilhar apenas move o topo; uma célula
+	 * compartilhada nunca é alterada. Por isso várias pilhas podem compartilhar células,
+	 * e o fim de cada pilha é dado pelo seu tamanho, não por uma célula sentinela.
+	 */
 	private Celula<E> topo;
-	private Celula<E> fundo;
+	private int tamanho;
+	/** Células livres para reutilização; null quando a pilha não reutiliza células */
+	private final ReservaCelulas<E> reserva;
+	/**
+	 * Quantidade de células, a partir do fundo, que podem estar compartilhadas com visões
+	 * e, portanto, não podem ser reutilizadas ao serem desempilhadas.
+	 */
+	private int alturaCompartilhada;
 
 	public Pilha() {
 
-		Celula<E> sentinela = new Celula<E>();
-		fundo = sentinela;
-		topo = sentinela;
+		this(new Celula<E>(), 0, null);
+
+	}
+
+	/**
+	 * Cria uma pilha que reutiliza as células dos itens desempilhados nos próximos empilhamentos.
+	 * Uma pilha que se mantém com profundidade estável deixa de alocar memória a cada operação.
+	 * @param tamanhoReserva Quantidade máxima de células livres guardadas para reutilização (mínimo 1)
+	 */
+	public Pilha(int tamanhoReserva) {
+
+		this(new Celula<E>(), 0, new ReservaCelulas<E>(tamanhoReserva));
+	}
+
+	/**
+	 * Cria uma pilha a partir do topo informado, possivelmente compartilhando suas células.
+	 */
+	private Pilha(Celula<E> topo, int tamanho, ReservaCelulas<E> reserva) {
 
+		this.topo = topo;
+		this.tamanho = tamanho;
+		this.reserva = reserva;
+		this.alturaCompartilhada = 0;
 	}
 
 	public boolean vazia() {
-		return fundo == topo;
+		return tamanho == 0;
 	}
 
 	public void empilhar(E item) {
 
-		topo = new Celula<E>(item, topo);
+		topo = novaCelula(item, topo);
+		tamanho++;
 	}
 
 	public E desempilhar() {
 
 		E desempilhado = consultarTopo();
-		topo = topo.getProximo();
+		Celula<E> removida = topo;
+		topo = removida.getProximo();
+		tamanho--;
+		liberar(removida);
 		return desempilhado;
 
 	}
 
+	/**
+	 * Empilha, em ordem, todos os itens do vetor; o último item do vetor fica no topo.
+	 */
+	public void empilharTodos(E[] itens) {
+		empilharTodos(itens, 0, itens.length);
+	}
+
+	/**
+	 * Empilha, em ordem, todos os itens da coleção; o último item percorrido fica no topo.
+	 */
+	@SuppressWarnings("unchecked")
+	public void empilharTodos(Collection<? extends E> itens) {
+		Object[] vetor = itens.toArray();
+		empilharTodos((E[]) vetor, 0, vetor.length);
+	}
+
+	/**
+	 * Empilha, em ordem, um trecho do vetor. O topo e o tamanho são atualizados uma única vez.
+	 * @param itens Vetor com os itens
+	 * @param inicio Posição do primeiro item a empilhar
+	 * @param quantidade Quantidade de itens a empilhar
+	 * @throws IndexOutOfBoundsException caso o trecho esteja fora dos limites do vetor
+	 */
+	public void empilharTodos(E[] itens, int inicio, int quantidade) {
+
+		Objects.checkFromIndexSize(inicio, quantidade, itens.length);
+		Celula<E> novoTopo = topo;
+		for (int i = inicio; i < inicio + quantidade; i++) {
+			novoTopo = novaCelula(itens[i], novoTopo);
+		}
+		topo = novoTopo;
+		tamanho += quantidade;
+	}
+
+	/**
+	 * Desempilha até maxItens itens, copiando-os para o vetor de destino a partir da posição 0,
+	 * na ordem em que sairiam da pilha (o topo primeiro). O topo e o tamanho são atualizados uma única vez.
+	 * @param destino Vetor que recebe os itens desempilhados
+	 * @param maxItens Quantidade máxima de itens a desempilhar (limitada também ao tamanho do destino)
+	 * @return A quantidade de itens desempilhados
+	 * @throws IllegalArgumentException caso maxItens seja negativo
+	 */
+	public int desempilharPara(E[] destino, int maxItens) {
+
+		if (maxItens < 0) {
+			throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+		}
+		int desempilhados = Math.min(Math.min(maxItens, destino.length), tamanho);
+		Celula<E> atual = topo;
+		for (int i = 0; i < desempilhados; i++) {
+			destino[i] = atual.getItem();
+			atual = atual.getProximo();
+		}
+		Celula<E> removida = topo;
+		topo = atual;
+		tamanho -= desempilhados;
+		if (reserva != null) {
+			// As células são tratadas do topo para o fundo, conforme a posição que cada uma ocupava
+			for (int i = desempilhados - 1; i >= 0; i--) {
+				Celula<E> seguinte = removida.getProximo();
+				liberarNaPosicao(removida, tamanho + i);
+				removida = seguinte;
+			}
+		}
+		return desempilhados;
+	}
+
 	public E consultarTopo() {
 
 		if (vazia()) {
@@ -45,13 +160,7 @@ public class Pilha<E> {
 	 * * @return um inteiro representando o número de itens na pilha.
 	 */
 	public int size() {
-		int contador = 0;
-		Celula<E> atual = topo;
-		while (atual != fundo) {
-			contador++;
-			atual = atual.getProximo();
-		}
-		return contador;
+		return tamanho;
 	}
 
 	/**
@@ -77,20 +186,211 @@ public class Pilha<E> {
 		}
 
 		Pilha<E> sub = new Pilha<>();
-		Pilha<E> auxiliar = new Pilha<>();
-		Celula<E> atual = this.topo;
+		if (numItens == 0) {
+			return sub;
+		}
 
-		// 1. Lê os N itens do topo e os insere em uma pilha auxiliar (invertendo a ordem)
-		for (int i = 0; i < numItens; i++) {
-			auxiliar.empilhar(atual.getItem());
+		// Copia as células do topo para baixo, ligando cada nova célula abaixo da anterior
+		Celula<E> atual = this.topo;
+		Celula<E> primeira = new Celula<E>(atual.getItem());
+		Celula<E> ultima = primeira;
+		for (int i = 1; i < numItens; i++) {
 			atual = atual.getProximo();
+			Celula<E> nova = new Celula<E>(atual.getItem());
+			ultima.setProximo(nova);
+			ultima = nova;
+		}
+		ultima.setProximo(sub.topo);
+		sub.topo = primeira;
+		sub.tamanho = numItens;
+
+		return sub;
+	}
+
+	/**
+	 * Devolve, em O(1) e sem copiar elementos, uma visão dos numItens elementos do topo da pilha atual.
+	 * A visão é uma pilha que compartilha as células da pilha atual, limitada ao seu próprio tamanho.
+	 * Como as células nunca são alteradas, a visão não é afetada por operações posteriores na pilha atual,
+	 * e empilhar ou desempilhar na visão também não afeta a pilha atual: o compartilhamento se desfaz
+	 * naturalmente, sem que nenhuma cópia seja necessária.
+	 *
+	 * @param numItens o número de itens do topo que farão parte da visão. Deve ser um valor não negativo.
+	 * @return uma pilha com os numItens primeiros elementos, na mesma ordem da pilha atual.
+	 * @throws IllegalArgumentException se a pilha não contém numItens elementos ou se numItens for negativo.
+	 */
+	public Pilha<E> visaoSubPilha(int numItens) {
+
+		if (numItens < 0) {
+			throw new IllegalArgumentException("O número de itens não pode ser negativo.");
 		}
 
-		// 2. Desempilha da auxiliar e empilha na nova pilha (restaurando a ordem original)
-		while (!auxiliar.vazia()) {
-			sub.empilhar(auxiliar.desempilhar());
+		if (this.size() < numItens) {
+			throw new IllegalArgumentException("A pilha não contém " + numItens + " elementos.");
 		}
 
-		return sub;
+		// As células atuais passam a ser compartilhadas e deixam de ser reutilizadas
+		alturaCompartilhada = Math.max(alturaCompartilhada, tamanho);
+		return new Pilha<>(topo, numItens, null);
+	}
+
+	private Celula<E> novaCelula(E item, Celula<E> proximo) {
+		return (reserva != null) ? reserva.obter(item, proximo) : new Celula<E>(item, proximo);
+	}
+
+	/**
+	 * Trata a célula que acabou de ser desempilhada, deixando a pilha com o tamanho atual.
+	 */
+	private void liberar(Celula<E> celula) {
+		if (reserva != null) {
+			liberarNaPosicao(celula, tamanho);
+		}
+	}
+
+	/**
+	 * Devolve à reserva a célula desempilhada que ocupava a posição informada (0 é o fundo),
+	 * a menos que ela possa estar compartilhada com uma visão. Nesse caso a célula é abandonada,
+	 * e as posições a partir dela só voltarão a receber células novas, não compartilhadas.
+	 */
+	private void liberarNaPosicao(Celula<E> celula, int posicao) {
+		if (posicao >= alturaCompartilhada) {
+			reserva.devolver(celula);
+		} else {
+			alturaCompartilhada = posicao;
+		}
+	}
+
+	/**
+	 * Resume a métrica dos numItens elementos do topo (contagem, soma, média, mínimo e máximo) em um único
+	 * percurso, sem criar objetos para os valores.
+	 * @param metrica Métrica de cada elemento
+	 * @param numItens Quantidade de elementos, a partir do topo, a considerar (entre 0 e size())
+	 * @return Estatísticas da métrica (vazias, caso numItens seja 0)
+	 * @throws IllegalArgumentException caso numItens esteja fora dos limites
+	 */
+	public DoubleSummaryStatistics resumir(ToDoubleFunction<? super E> metrica, int numItens) {
+
+		DoubleSummaryStatistics resumo = new DoubleSummaryStatistics();
+		percorrerDoTopo(numItens, item -> resumo.accept(metrica.applyAsDouble(item)));
+		return resumo;
+	}
+
+	/**
+	 * Resume uma métrica inteira dos numItens elementos do topo, como resumir.
+	 * @throws IllegalArgumentException caso numItens não esteja entre 0 e size()
+	 */
+	public LongSummaryStatistics resumirInteiros(ToLongFunction<? super E> metrica, int numItens) {
+
+		LongSummaryStatistics resumo = new LongSummaryStatistics();
+		percorrerDoTopo(numItens, item -> resumo.accept(metrica.applyAsLong(item)));
+		return resumo;
+	}
+
+	/**
+	 * Conta, em um único percurso, quantos dos numItens elementos do topo têm a métrica acima do limite.
+	 * @param metrica Métrica de cada elemento
+	 * @param limite Valor que a métrica deve ultrapassar (estritamente)
+	 * @param numItens Quantidade de elementos, a partir do topo, a considerar (entre 0 e size())
+	 * @return A quantidade de elementos com a métrica acima do limite
+	 * @throws IllegalArgumentException caso numItens esteja fora dos limites
+	 */
+	public int contarAcimaDe(ToDoubleFunction<? super E> metrica, double limite, int numItens) {
+		return contarDoTopo(numItens, item -> metrica.applyAsDouble(item) > limite);
+	}
+
+	/**
+	 * Conta quantos dos numItens elementos do topo têm a métrica inteira acima do limite, como contarAcimaDe.
+	 * @throws IllegalArgumentException caso numItens não esteja entre 0 e size()
+	 */
+	public int contarInteirosAcimaDe(ToLongFunction<? super E> metrica, long limite, int numItens) {
+		return contarDoTopo(numItens, item -> metrica.applyAsLong(item) > limite);
+	}
+
+	private void percorrerDoTopo(int numItens, Consumer<? super E> acao) {
+
+		exigirItens(numItens);
+		int contador = 0;
+		for (E item : this) {
+			if (contador++ == numItens) {
+				break;
+			}
+			acao.accept(item);
+		}
+	}
+
+	private int contarDoTopo(int numItens, Predicate<? super E> condicao) {
+
+		exigirItens(numItens);
+		int contador = 0;
+		int encontrados = 0;
+		for (E item : this) {
+			if (contador++ == numItens) {
+				break;
+			}
+			if (condicao.test(item)) {
+				encontrados++;
+			}
+		}
+		return encontrados;
+	}
+
+	private void exigirItens(int numItens) {
+
+		if (numItens < 0) {
+			throw new IllegalArgumentException("O número de itens não pode ser negativo.");
+		}
+		if (this.size() < numItens) {
+			throw new IllegalArgumentException("A pilha não contém " + numItens + " elementos.");
+		}
+	}
+
+	/**
+	 * Percorre os elementos da pilha do topo para o fundo, sem desempilhá-los.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+
+		return new Iterator<E>() {
+			private Celula<E> atual = topo;
+			private int restantes = tamanho;
+
+			@Override
+			public boolean hasNext() {
+				return restantes > 0;
+			}
+
+			@Override
+			public E next() {
+				if (restantes == 0) {
+					throw new NoSuchElementException("Não há mais elementos na pilha.");
+				}
+				E item = atual.getItem();
+				atual = atual.getProximo();
+				restantes--;
+				return item;
+			}
+		};
+	}
+
+	/**
+	 * Spliterator que conhece o tamanho da pilha. Como as células só podem ser percorridas em sequência,
+	 * cada divisão copia um lote crescente de elementos para um vetor, que é então dividido sem novas cópias.
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+	}
+
+	/**
+	 * Retorna um stream sequencial com os elementos da pilha, do topo para o fundo.
+	 */
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Retorna um stream possivelmente paralelo com os elementos da pilha, na ordem do topo para o fundo.
+	 */
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
 	}
-}
\ No newline at end of file
+}
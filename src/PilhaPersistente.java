@@ -0,0 +1,161 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Pilha persistente (imutável). Empilhar e desempilhar não alteram a pilha: devolvem uma nova versão,
+ * em O(1), que compartilha com a anterior todos os elementos abaixo do topo.
+ * Qualquer versão pode ser lida por várias threads, sem travas, enquanto outras versões são criadas.
+ */
+public final class PilhaPersistente<E> implements Iterable<E> {
+
+	private final E item;
+	private final PilhaPersistente<E> resto;
+	private final int tamanho;
+
+	/**
+	 * Cria uma pilha vazia.
+	 */
+	public PilhaPersistente() {
+
+		item = null;
+		resto = null;
+		tamanho = 0;
+	}
+
+	private PilhaPersistente(E item, PilhaPersistente<E> resto) {
+
+		this.item = item;
+		this.resto = resto;
+		this.tamanho = resto.tamanho + 1;
+	}
+
+	public boolean vazia() {
+		return tamanho == 0;
+	}
+
+	/**
+	 * Retorna uma nova versão da pilha com o item no topo. Esta versão não é alterada.
+	 */
+	public PilhaPersistente<E> empilhar(E item) {
+		return new PilhaPersistente<>(item, this);
+	}
+
+	/**
+	 * Retorna uma nova versão da pilha sem o item do topo. Esta versão não é alterada.
+	 * @throws NoSuchElementException caso a pilha esteja vazia.
+	 */
+	public PilhaPersistente<E> desempilhar() {
+
+		if (vazia()) {
+			throw new NoSuchElementException("Nao há nenhum item na pilha!");
+		}
+		return resto;
+	}
+
+	public E consultarTopo() {
+
+		if (vazia()) {
+			throw new NoSuchElementException("Nao há nenhum item na pilha!");
+		}
+		return item;
+	}
+
+	public int size() {
+		return tamanho;
+	}
+
+	/**
+	 * Retorna uma nova pilha com os mesmos elementos em ordem inversa, em O(n).
+	 */
+	PilhaPersistente<E> inverter() {
+
+		PilhaPersistente<E> invertida = new PilhaPersistente<>();
+		for (PilhaPersistente<E> atual = this; !atual.vazia(); atual = atual.resto) {
+			invertida = invertida.empilhar(atual.item);
+		}
+		return invertida;
+	}
+
+	/**
+	 * Retorna uma nova pilha com os elementos desta, na mesma ordem, acima dos elementos da base informada,
+	 * em O(n) no tamanho desta. A base é compartilhada, não copiada.
+	 */
+	PilhaPersistente<E> acimaDe(PilhaPersistente<E> base) {
+
+		Object[] deCima = new Object[tamanho];
+		int posicao = 0;
+		for (PilhaPersistente<E> atual = this; !atual.vazia(); atual = atual.resto) {
+			deCima[posicao++] = atual.item;
+		}
+		PilhaPersistente<E> resultado = base;
+		while (posicao > 0) {
+			@SuppressWarnings("unchecked")
+			E item = (E) deCima[--posicao];
+			resultado = resultado.empilhar(item);
+		}
+		return resultado;
+	}
+
+	/**
+	 * Calcula a média da métrica dos numItens elementos do topo. Métricas nulas contam como zero.
+	 * @throws IllegalArgumentException caso a quantidade não esteja entre 1 e size()
+	 */
+	public double calcularValorMedio(Function<E, Double> extrator, int numItens) {
+		return Percursos.calcularValorMedio(this, tamanho, "pilha", extrator, numItens);
+	}
+
+	/**
+	 * Percorre os numItens elementos do topo e entrega ao consumidor, do topo para o fundo, os que atendem à condição.
+	 * @return A quantidade de elementos entregues ao consumidor
+	 * @throws IllegalArgumentException caso a quantidade seja negativa
+	 */
+	public int filtrar(Predicate<E> condicional, int numItens, Consumer<? super E> consumidor) {
+		return Percursos.filtrar(this, condicional, numItens, consumidor);
+	}
+
+	/**
+	 * Percorre os elementos da pilha do topo para o fundo.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+
+		return new Iterator<E>() {
+			private PilhaPersistente<E> atual = PilhaPersistente.this;
+
+			@Override
+			public boolean hasNext() {
+				return !atual.vazia();
+			}
+
+			@Override
+			public E next() {
+				if (atual.vazia()) {
+					throw new NoSuchElementException("Não há mais elementos na pilha.");
+				}
+				E proximo = atual.item;
+				atual = atual.resto;
+				return proximo;
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(iterator(), tamanho, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+	}
+
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+}
@@ -0,0 +1,217 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Pilha implementada sobre um vetor que cresce por duplicação.
+ * Mantém a mesma interface da Pilha encadeada, mas não aloca uma célula a cada empilhamento.
+ * O fundo da pilha fica na posição fundo do vetor (0, exceto nas visões) e o topo na posição (fundo + tamanho - 1).
+ * Uma visão de subpilha é uma janela sobre o mesmo vetor; o vetor só é copiado quando uma escrita
+ * atingiria posições que podem estar compartilhadas.
+ */
+public class PilhaVetor<E> extends Pilha<E> {
+
+	/** Capacidade inicial do vetor */
+	private static final int CAPACIDADE_INICIAL = 8;
+
+	private Object[] itens;
+	/** Posição do vetor onde fica o fundo da pilha */
+	private int fundo;
+	private int tamanho;
+	/**
+	 * Quantidade de posições, a partir do fundo, que podem estar compartilhadas com outras pilhas
+	 * e, portanto, não podem ser gravadas sem antes copiar o vetor. Em uma visão, todas as posições
+	 * (inclusive as acima do topo, que pertencem à pilha original) são compartilhadas.
+	 */
+	private int alturaCompartilhada;
+
+	public PilhaVetor() {
+		this(CAPACIDADE_INICIAL);
+	}
+
+	/**
+	 * Cria a pilha com a capacidade inicial informada.
+	 * @param capacidadeInicial Capacidade inicial do vetor (mínimo 1)
+	 */
+	public PilhaVetor(int capacidadeInicial) {
+
+		if (capacidadeInicial < 1) {
+			throw new IllegalArgumentException("A capacidade inicial deve ser um número positivo.");
+		}
+		itens = new Object[capacidadeInicial];
+		fundo = 0;
+		tamanho = 0;
+		alturaCompartilhada = 0;
+	}
+
+	/**
+	 * Cria uma visão sobre o trecho do vetor informado, sem copiá-lo.
+	 */
+	private PilhaVetor(Object[] itens, int fundo, int tamanho) {
+
+		this.itens = itens;
+		this.fundo = fundo;
+		this.tamanho = tamanho;
+		this.alturaCompartilhada = Integer.MAX_VALUE;
+	}
+
+	@Override
+	public boolean vazia() {
+		return tamanho == 0;
+	}
+
+	@Override
+	public void empilhar(E item) {
+
+		prepararEscrita(1);
+		itens[fundo + tamanho++] = item;
+	}
+
+	@Override
+	public E desempilhar() {
+
+		E desempilhado = consultarTopo();
+		tamanho--;
+		// Uma posição compartilhada continua referenciada pela outra pilha e não é limpa
+		if (tamanho >= alturaCompartilhada) {
+			itens[fundo + tamanho] = null;
+		}
+		return desempilhado;
+	}
+
+	/**
+	 * Empilha o trecho do vetor com no máximo um redimensionamento e uma cópia em bloco.
+	 */
+	@Override
+	public void empilharTodos(E[] novos, int inicio, int quantidade) {
+
+		Objects.checkFromIndexSize(inicio, quantidade, novos.length);
+		if (quantidade == 0) {
+			return;
+		}
+		prepararEscrita(quantidade);
+		System.arraycopy(novos, inicio, itens, fundo + tamanho, quantidade);
+		tamanho += quantidade;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int desempilharPara(E[] destino, int maxItens) {
+
+		if (maxItens < 0) {
+			throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+		}
+		int desempilhados = Math.min(Math.min(maxItens, destino.length), tamanho);
+		int topo = fundo + tamanho - 1;
+		for (int i = 0; i < desempilhados; i++) {
+			destino[i] = (E) itens[topo - i];
+		}
+		tamanho -= desempilhados;
+		// Limpa apenas as posições que não podem estar compartilhadas
+		int inicioLimpeza = Math.max(tamanho, Math.min(alturaCompartilhada, tamanho + desempilhados));
+		Arrays.fill(itens, fundo + inicioLimpeza, fundo + tamanho + desempilhados, null);
+		return desempilhados;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E consultarTopo() {
+
+		if (vazia()) {
+			throw new NoSuchElementException("Nao há nenhum item na pilha!");
+		}
+
+		return (E) itens[fundo + tamanho - 1];
+	}
+
+	@Override
+	public int size() {
+		return tamanho;
+	}
+
+	/**
+	 * Cria e devolve uma nova pilha contendo os primeiros numItens elementos
+	 * do topo da pilha atual, copiados em um único bloco.
+	 * A pilha original não é modificada.
+	 *
+	 * @param numItens o número de itens a serem copiados da pilha original. Deve ser um valor não negativo.
+	 * @return uma nova instância de PilhaVetor<E> contendo os numItens primeiros elementos.
+	 * @throws IllegalArgumentException se a pilha não contém numItens elementos ou se numItens for negativo.
+	 */
+	@Override
+	public Pilha<E> subPilha(int numItens) {
+
+		if (numItens < 0) {
+			throw new IllegalArgumentException("O número de itens não pode ser negativo.");
+		}
+
+		if (tamanho < numItens) {
+			throw new IllegalArgumentException("A pilha não contém " + numItens + " elementos.");
+		}
+
+		PilhaVetor<E> sub = new PilhaVetor<>(Math.max(1, numItens));
+		System.arraycopy(itens, fundo + tamanho - numItens, sub.itens, 0, numItens);
+		sub.tamanho = numItens;
+		return sub;
+	}
+
+	/**
+	 * Cria, em O(1), uma visão com os numItens elementos do topo: uma janela sobre o mesmo vetor,
+	 * sem cópia. A visão e esta pilha só copiam o vetor quando uma escrita atingiria posições compartilhadas.
+	 */
+	@Override
+	public Pilha<E> visaoSubPilha(int numItens) {
+
+		if (numItens < 0) {
+			throw new IllegalArgumentException("O número de itens não pode ser negativo.");
+		}
+
+		if (tamanho < numItens) {
+			throw new IllegalArgumentException("A pilha não contém " + numItens + " elementos.");
+		}
+
+		alturaCompartilhada = Math.max(alturaCompartilhada, tamanho);
+		return new PilhaVetor<>(itens, fundo + tamanho - numItens, numItens);
+	}
+
+	/**
+	 * Garante espaço para mais quantidade itens acima do topo em posições exclusivas desta pilha,
+	 * copiando o vetor (com capacidade dobrada, se necessário) caso ele esteja cheio ou compartilhado.
+	 */
+	private void prepararEscrita(int quantidade) {
+
+		boolean compartilhado = tamanho < alturaCompartilhada;
+		if (!compartilhado && fundo + tamanho + quantidade <= itens.length) {
+			return;
+		}
+		int novaCapacidade = Math.max(1, itens.length);
+		while (novaCapacidade < tamanho + quantidade) {
+			novaCapacidade *= 2;
+		}
+		Object[] novo = new Object[novaCapacidade];
+		System.arraycopy(itens, fundo, novo, 0, tamanho);
+		itens = novo;
+		fundo = 0;
+		alturaCompartilhada = 0;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return Spliterators.iterator(spliterator());
+	}
+
+	/**
+	 * Spliterator que percorre o vetor do topo para o fundo, acessando as posições diretamente
+	 * e se dividindo ao meio, sem copiar elementos.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Spliterator<E> spliterator() {
+		Object[] vetor = itens;
+		int topo = fundo + tamanho - 1;
+		return new SpliteratorIndexado<>(i -> (E) vetor[topo - i], 0, tamanho, 0);
+	}
+}
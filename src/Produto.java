@@ -1,16 +1,28 @@
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Produto implements Comparable<Produto>{
 	
 	private static final double MARGEM_PADRAO = 0.2;
-	private static int ultimoID = 10_000;
+	
+	/** Formato das datas nos dados em texto dos produtos */
+	static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
+	/** Próximo código identificador; atômico para que produtos possam ser criados por várias threads */
+	private static final AtomicInteger ultimoID = new AtomicInteger(10_000);
 	
 	protected int idProduto;
 	protected String descricao;
 	protected double precoCusto;
 	protected double margemLucro;
+	/** Preço de custo em centavos, usado nos cálculos de preço */
+	protected long precoCustoCentavos;
+	/** Margem de lucro em pontos-base (0,01%), usada nos cálculos de preço */
+	protected long margemLucroPontosBase;
+	/** Catálogo em colunas de onde este produto foi criado, e sua linha nele (null e -1 para produtos avulsos) */
+	ProdutoStore catalogo;
+	int linha = -1;
 	
 	/**
      * Inicializador privado. Os valores default, em caso de erro, são:
@@ -21,16 +33,42 @@ public abstract class Produto implements Comparable<Produto>{
      */
 	private void init(String desc, double precoCusto, double margemLucro) {
 		
-		if ((desc.length() >= 3) && (precoCusto > 0.0) && (margemLucro > 0.0)) {
-			descricao = desc;
-			this.precoCusto = precoCusto;
-			this.margemLucro = margemLucro;
-			idProduto = ultimoID++;
-		} else {
+		validar(desc, precoCusto, margemLucro);
+		descricao = desc;
+		this.precoCusto = precoCusto;
+		this.margemLucro = margemLucro;
+		precoCustoCentavos = Dinheiro.centavos(precoCusto);
+		margemLucroPontosBase = Dinheiro.pontosBase(margemLucro);
+		idProduto = novoID();
+	}
+	
+	/**
+     * Verifica os dados de um novo produto, com as mesmas regras dos construtores.
+     * @throws IllegalArgumentException caso a descrição tenha menos de 3 caracteres ou preço e margem não sejam positivos
+     */
+	static void validar(String desc, double precoCusto, double margemLucro) {
+		validar(desc, precoCusto > 0.0, margemLucro > 0.0);
+	}
+	
+	/**
+     * Verifica os dados de um novo produto cujos valores já foram lidos em ponto fixo.
+     * @param precoCustoPositivo Se o preço de custo lido é maior que zero
+     * @param margemLucroPositiva Se a margem de lucro lida é maior que zero
+     * @throws IllegalArgumentException caso a descrição tenha menos de 3 caracteres ou preço e margem não sejam positivos
+     */
+	static void validar(String desc, boolean precoCustoPositivo, boolean margemLucroPositiva) {
+		if ((desc.length() < 3) || !precoCustoPositivo || !margemLucroPositiva) {
 			throw new IllegalArgumentException("Valores inválidos para os dados do produto.");
 		}
 	}
 	
+	/**
+     * Consome e retorna o próximo código identificador de produto.
+     */
+	static int novoID() {
+		return ultimoID.getAndIncrement();
+	}
+	
 	/**
      * Construtor completo. Os valores default, em caso de erro, são:
      * "Produto sem descrição", R$ 0.00, 0.0  
@@ -53,11 +91,36 @@ public abstract class Produto implements Comparable<Produto>{
 		init(desc, precoCusto, MARGEM_PADRAO);
 	}
 	
+	/**
+     * Construtor para produtos já cadastrados, que mantêm o código identificador informado
+     * sem consumir um novo código. Os dados não são validados novamente.
+     * @param idProduto Código identificador do produto
+     * @param desc Descrição do produto
+     * @param precoCustoCentavos Preço do produto, em centavos
+     * @param margemLucroPontosBase Margem de lucro, em pontos-base
+     */
+	protected Produto(int idProduto, String desc, long precoCustoCentavos, long margemLucroPontosBase) {
+		this.idProduto = idProduto;
+		descricao = desc;
+		this.precoCustoCentavos = precoCustoCentavos;
+		this.margemLucroPontosBase = margemLucroPontosBase;
+		precoCusto = Dinheiro.reais(precoCustoCentavos);
+		margemLucro = Dinheiro.taxa(margemLucroPontosBase);
+	}
+	
 	 /**
      * Retorna o valor de venda do produto, considerando seu preço de custo e margem de lucro.
      * @return Valor de venda do produto (double, positivo)
      */
-	public abstract double valorDeVenda();
+	public double valorDeVenda() {
+		return Dinheiro.reais(valorDeVendaCentavos());
+	}
+
+	/**
+     * Retorna o valor de venda do produto em centavos, arredondado para o centavo (HALF_UP).
+     * @return Valor de venda do produto, em centavos (positivo)
+     */
+	public abstract long valorDeVendaCentavos();
 	
 	/**
      * Descrição, em string, do produto, contendo sua descrição e o valor de venda.
@@ -67,9 +130,7 @@ public abstract class Produto implements Comparable<Produto>{
     @Override
 	public String toString() {
     	
-    	NumberFormat moeda = NumberFormat.getCurrencyInstance();
-    	
-		return String.format("NOME: " + descricao + ": " + moeda.format(valorDeVenda()));
+		return "NOME: " + descricao + ": R$ " + Dinheiro.formatar(valorDeVendaCentavos());
 	}
     
     @Override
@@ -114,6 +175,15 @@ public abstract class Produto implements Comparable<Produto>{
     		return 1;
     }
     
+    /**
+     * Garante que os próximos produtos cadastrados recebam códigos a partir do valor informado.
+     * Usado depois de restaurar produtos já cadastrados, que mantêm seus códigos originais.
+     * @param proximo Menor código que um novo produto pode receber
+     */
+    static void avancarID(int proximo) {
+    	ultimoID.accumulateAndGet(proximo, Math::max);
+    }
+    
     /**
      * Cria um produto a partir de uma linha de dados em formato texto. A linha de dados deve estar de acordo com a formatação
      * "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
@@ -136,8 +206,7 @@ public abstract class Produto implements Comparable<Produto>{
     	precoCusto = Double.parseDouble(dadosLinha[2].replace(",", "."));
         margemLucro = Double.parseDouble(dadosLinha[3].replace(",", "."));
         if (tipo == 2) {
-    		DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    		dataDeValidade = LocalDate.parse(dadosLinha[4], formatoData);
+    		dataDeValidade = LocalDate.parse(dadosLinha[4], FORMATO_DATA);
     		produto = new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataDeValidade);
     	} else {
     		produto = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
@@ -21,13 +21,34 @@ public class ProdutoNaoPerecivel extends Produto{
 		super(desc, precoCusto);
 	}
 
+	/**
+     * Construtor para produtos já cadastrados, que mantêm seu código identificador.
+     * @param idProduto Código identificador do produto
+     * @param desc Descrição do produto
+     * @param precoCustoCentavos Preço de compra do produto, em centavos
+     * @param margemLucroPontosBase Margem de lucro para a venda, em pontos-base
+     */
+	ProdutoNaoPerecivel(int idProduto, String desc, long precoCustoCentavos, long margemLucroPontosBase) {
+		super(idProduto, desc, precoCustoCentavos, margemLucroPontosBase);
+	}
+
 	/**
      * Retorna o valor de venda do produto, considerando seu preço de custo e margem de lucro
-     * @return Valor de venda do produto (double, positivo)
+     * @return Valor de venda do produto, em centavos (positivo)
      */
 	@Override
-	public double valorDeVenda() {
-		return (precoCusto * (1.0 + margemLucro));
+	public long valorDeVendaCentavos() {
+		return calcularValorDeVenda(precoCustoCentavos, margemLucroPontosBase);
+	}
+
+	/**
+     * Calcula o valor de venda de um produto não perecível a partir do preço de custo e da margem de lucro.
+     * @param precoCustoCentavos Preço de compra, em centavos
+     * @param margemLucroPontosBase Margem de lucro, em pontos-base
+     * @return Valor de venda, em centavos (positivo)
+     */
+	static long calcularValorDeVenda(long precoCustoCentavos, long margemLucroPontosBase) {
+		return Dinheiro.acrescentar(precoCustoCentavos, margemLucroPontosBase);
 	}
 
 	/**
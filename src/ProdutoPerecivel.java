@@ -3,8 +3,8 @@ import java.time.format.DateTimeFormatter;
 
 public class ProdutoPerecivel extends Produto{
 
-	/** Desconto para proximidade de validade: 25% */
-	private static final double DESCONTO = 0.25;
+	/** Desconto para proximidade de validade: 25% (em pontos-base) */
+	private static final long DESCONTO_PONTOS_BASE = 2_500;
 	
 	/** Prazo, em dias, para conceder o desconto por proximidade da validade */
 	private static final int PRAZO_DESCONTO = 7;
@@ -12,6 +12,22 @@ public class ProdutoPerecivel extends Produto{
 	/** Data de validade do produto. Não pode ser anterior à data da criação ou venda do produto. */
 	private LocalDate dataDeValidade;
 	
+	/** Data de validade, em dias desde 01/01/1970 */
+	private long diaDeValidade;
+	
+	/** Preço de venda já calculado e o dia (do relógio de preços) a que ele se refere */
+	private volatile PrecoDoDia precoDoDia;
+	
+	private static final class PrecoDoDia {
+		final long dia;
+		final long preco;
+		
+		PrecoDoDia(long dia, long preco) {
+			this.dia = dia;
+			this.preco = preco;
+		}
+	}
+	
 	/**
      * Construtor completo. 
      * Causa exceção em caso de valores inválidos para os dados do produto.
@@ -25,10 +41,9 @@ public class ProdutoPerecivel extends Produto{
 		
 		super(desc, precoCusto, margemLucro);
 		
-		if (validade.isBefore(LocalDate.now())) {
-			throw new IllegalArgumentException("Data de validade do produto é anterior ao dia de hoje!");
-		}
+		verificarValidade(validade);
 		dataDeValidade = validade;
+		diaDeValidade = validade.toEpochDay();
 	}
 	
 	/**
@@ -42,33 +57,94 @@ public class ProdutoPerecivel extends Produto{
 		
 		super(desc, precoCusto);
 		
-		if (validade.isBefore(LocalDate.now())) {
+		verificarValidade(validade);
+		dataDeValidade = validade;
+		diaDeValidade = validade.toEpochDay();
+	}
+
+	/**
+     * Construtor para produtos já cadastrados, que mantêm seu código identificador.
+     * A data de validade não é comparada com o dia de hoje; um produto vencido só causa exceção ao ser vendido.
+     * @param idProduto Código identificador do produto
+     * @param desc Descrição do produto
+     * @param precoCustoCentavos Preço de compra do produto, em centavos
+     * @param margemLucroPontosBase Margem de lucro para a venda, em pontos-base
+     * @param validade Data de validade do produto
+     */
+	ProdutoPerecivel(int idProduto, String desc, long precoCustoCentavos, long margemLucroPontosBase, LocalDate validade) {
+		
+		super(idProduto, desc, precoCustoCentavos, margemLucroPontosBase);
+		dataDeValidade = validade;
+		diaDeValidade = validade.toEpochDay();
+	}
+
+	/**
+     * Verifica a data de validade de um novo produto perecível.
+     * @throws IllegalArgumentException caso a validade seja anterior ao dia de hoje (do relógio de preços)
+     */
+	static void verificarValidade(LocalDate validade) {
+		verificarValidade(validade.toEpochDay());
+	}
+
+	/**
+     * Verifica a validade, em dias desde 01/01/1970, de um novo produto perecível.
+     * @throws IllegalArgumentException caso a validade seja anterior ao dia de hoje (do relógio de preços)
+     */
+	static void verificarValidade(long diaDeValidade) {
+		if (diaDeValidade < RelogioPrecos.diaAtual()) {
 			throw new IllegalArgumentException("Data de validade do produto é anterior ao dia de hoje!");
 		}
-		dataDeValidade = validade;
 	}
 
 	/**
      * Retorna o valor de venda do produto, considerando seu preço de custo, margem de lucro e
      * dias de validade. Se o prazo de validade estiver a menos de 7 dias, será concedido desconto de 25%.
-     * @return Valor de venda do produto (double, positivo)
+     * O dia de hoje vem do RelogioPrecos, e o preço é calculado uma única vez por dia.
+     * @return Valor de venda do produto, em centavos (positivo)
      */
 	@Override
-	public double valorDeVenda() {
+	public long valorDeVendaCentavos() {
+		
+		long hoje = RelogioPrecos.diaAtual();
+		PrecoDoDia calculado = precoDoDia;
 		
-		double precoVenda;
+		if (calculado == null || calculado.dia != hoje) {
+			calculado = new PrecoDoDia(hoje, calcularValorDeVenda(precoCustoCentavos, margemLucroPontosBase, diaDeValidade, hoje));
+			precoDoDia = calculado;
+		}
+		
+		return calculado.preco;
+	}
+	
+	/**
+     * Calcula o valor de venda de um produto perecível para o dia informado.
+     * Margem e desconto são aplicados juntos, com um único arredondamento para o centavo.
+     * @param precoCustoCentavos Preço de compra do produto, em centavos
+     * @param margemLucroPontosBase Margem de lucro para a venda, em pontos-base
+     * @param diaDeValidade Data de validade, em dias desde 01/01/1970
+     * @param hoje Dia da venda, em dias desde 01/01/1970
+     * @return Valor de venda do produto, em centavos (positivo)
+     * @throws IllegalArgumentException caso o produto esteja vencido no dia informado
+     */
+	static long calcularValorDeVenda(long precoCustoCentavos, long margemLucroPontosBase, long diaDeValidade, long hoje) {
 		
-		if (dataDeValidade.isBefore(LocalDate.now())) {
+		if (diaDeValidade < hoje) {
 			throw new IllegalArgumentException("Data de validade do produto é anterior ao dia de hoje!");
 		}
 		
-		precoVenda = (precoCusto * (1.0 + margemLucro));
+		long fatorMargem = Dinheiro.PONTOS_BASE_POR_UNIDADE + margemLucroPontosBase;
 				
-		if (LocalDate.now().until(dataDeValidade).getDays() <= PRAZO_DESCONTO) {
-			precoVenda = precoVenda * (1.0 - DESCONTO);
+		if (diaDeValidade - hoje <= PRAZO_DESCONTO) {
+			long fatorDesconto = Dinheiro.PONTOS_BASE_POR_UNIDADE - DESCONTO_PONTOS_BASE;
+			return Dinheiro.multiplicar(precoCustoCentavos, fatorMargem * fatorDesconto,
+					Dinheiro.PONTOS_BASE_POR_UNIDADE * Dinheiro.PONTOS_BASE_POR_UNIDADE);
 		}
 		
-		return precoVenda;
+		return Dinheiro.multiplicar(precoCustoCentavos, fatorMargem, Dinheiro.PONTOS_BASE_POR_UNIDADE);
+	}
+	
+	public LocalDate getDataDeValidade() {
+		return dataDeValidade;
 	}
 	
 	/**
@@ -0,0 +1,261 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Catálogo de produtos armazenado em colunas (vetores de tipos primitivos), em vez de um vetor de objetos.
+ * Cada produto ocupa uma linha, com a mesma posição em todos os vetores: código, tipo, preço de custo
+ * (centavos), margem de lucro (pontos-base), validade (dias desde 01/01/1970) e descrição. As descrições
+ * ficam codificadas no DicionarioDescricoes (cada palavra distinta guardada uma única vez) e o texto só é
+ * montado quando pedido.
+ * As colunas são a única cópia dos dados do catálogo: índices e pedidos guardam apenas números de linha,
+ * e objetos Produto só são criados nas pontas (exibição e consultas), como visões de uma linha.
+ *
+ * Produtos são apenas acrescentados, por uma thread de cada vez. As colunas ficam em um objeto que é
+ * substituído por uma cópia maior quando enche; a nova linha é escrita antes de a quantidade (volátil)
+ * ser publicada, então outras threads podem ler, sem trava, qualquer linha já publicada.
+ */
+public class ProdutoStore {
+
+	static final byte TIPO_NAO_PERECIVEL = 1;
+	static final byte TIPO_PERECIVEL = 2;
+
+	private static final int CAPACIDADE_INICIAL = 16;
+
+	private final DicionarioDescricoes dicionario = new DicionarioDescricoes();
+	private volatile Colunas colunas;
+	private volatile int quantidade;
+	/** Impressão digital do arquivo de produtos de origem; 0 para catálogos que não foram lidos de um arquivo */
+	private long impressaoDigital;
+
+	public ProdutoStore() {
+		this(CAPACIDADE_INICIAL);
+	}
+
+	/**
+	 * Cria o catálogo já dimensionado para a quantidade esperada de produtos.
+	 * @param capacidadeInicial Quantidade de produtos que se espera guardar
+	 */
+	public ProdutoStore(int capacidadeInicial) {
+		colunas = new Colunas(Math.max(1, capacidadeInicial));
+		quantidade = 0;
+	}
+
+	/**
+	 * Acrescenta ao catálogo os dados do produto, mantendo seu código.
+	 * @param produto Produto a ser incluído
+	 * @return Linha do produto no catálogo
+	 */
+	public int adicionar(Produto produto) {
+		if (produto instanceof ProdutoPerecivel) {
+			return adicionar(TIPO_PERECIVEL, produto.idProduto, produto.descricao, produto.precoCustoCentavos,
+					produto.margemLucroPontosBase, Math.toIntExact(((ProdutoPerecivel) produto).getDataDeValidade().toEpochDay()));
+		}
+		return adicionar(TIPO_NAO_PERECIVEL, produto.idProduto, produto.descricao, produto.precoCustoCentavos,
+				produto.margemLucroPontosBase, 0);
+	}
+
+	/**
+	 * Acrescenta uma linha ao catálogo. Os dados não são validados novamente.
+	 * @param tipo TIPO_NAO_PERECIVEL ou TIPO_PERECIVEL
+	 * @param idProduto Código do produto
+	 * @param descricao Descrição do produto
+	 * @param precoCustoCentavos Preço de custo, em centavos
+	 * @param margemLucroPontosBase Margem de lucro, em pontos-base
+	 * @param validade Validade em dias desde 01/01/1970 (ignorada para não perecíveis)
+	 * @return Linha do produto no catálogo
+	 */
+	synchronized int adicionar(byte tipo, int idProduto, String descricao, long precoCustoCentavos,
+			long margemLucroPontosBase, int validade) {
+		int linha = quantidade;
+		Colunas atuais = colunas;
+		if (linha == atuais.ids.length) {
+			atuais = new Colunas(atuais, linha * 2);
+			colunas = atuais;
+		}
+		atuais.ids[linha] = idProduto;
+		atuais.tipos[linha] = tipo;
+		atuais.precosCusto[linha] = precoCustoCentavos;
+		atuais.margensLucro[linha] = margemLucroPontosBase;
+		atuais.validades[linha] = (tipo == TIPO_PERECIVEL) ? validade : 0;
+		atuais.descricoes[linha] = dicionario.codificar(descricao);
+		quantidade = linha + 1;
+		return linha;
+	}
+
+	public int size() {
+		return quantidade;
+	}
+
+	/**
+	 * Retorna a impressão digital da identidade do arquivo de produtos do qual o catálogo foi lido: o tipo,
+	 * o código e a descrição de cada produto que recebeu um código na leitura, inclusive os perecíveis
+	 * descartados por estarem vencidos. Ela não muda enquanto o arquivo de origem não mudar, mesmo que
+	 * produtos vençam entre uma leitura e outra. Catálogos com a mesma impressão associam os mesmos códigos
+	 * aos mesmos produtos.
+	 * @return A impressão digital (ver LeitorCatalogo), ou 0 caso o catálogo não tenha sido lido de um arquivo
+	 */
+	public long impressaoDigital() {
+		return impressaoDigital;
+	}
+
+	void definirImpressaoDigital(long impressaoDigital) {
+		this.impressaoDigital = impressaoDigital;
+	}
+
+	public int id(int linha) {
+		return colunasAte(linha).ids[linha];
+	}
+
+	/**
+	 * Retorna a descrição do produto da linha informada, montada a partir do dicionário.
+	 */
+	public String descricao(int linha) {
+		return dicionario.decodificar(colunasAte(linha).descricoes[linha]);
+	}
+
+	public boolean perecivel(int linha) {
+		return colunasAte(linha).tipos[linha] == TIPO_PERECIVEL;
+	}
+
+	public long precoCustoCentavos(int linha) {
+		return colunasAte(linha).precosCusto[linha];
+	}
+
+	public long margemLucroPontosBase(int linha) {
+		return colunasAte(linha).margensLucro[linha];
+	}
+
+	/**
+	 * Retorna a validade do produto da linha informada, em dias desde 01/01/1970 (0 para não perecíveis).
+	 */
+	public int validade(int linha) {
+		return colunasAte(linha).validades[linha];
+	}
+
+	/**
+	 * Retorna o valor de venda do produto da linha informada, em centavos, calculado diretamente das colunas
+	 * para o dia atual do relógio de preços.
+	 * @throws IllegalArgumentException caso o produto seja perecível e esteja vencido
+	 */
+	public long valorDeVendaCentavos(int linha) {
+		return valorDeVendaCentavos(linha, RelogioPrecos.diaAtual());
+	}
+
+	/**
+	 * Retorna o valor de venda do produto da linha informada, em centavos, para o dia informado.
+	 * Quem precifica várias linhas consulta o relógio uma única vez e repassa o dia.
+	 * @param hoje Dia da venda, em dias desde 01/01/1970
+	 * @throws IllegalArgumentException caso o produto seja perecível e esteja vencido no dia informado
+	 */
+	public long valorDeVendaCentavos(int linha, long hoje) {
+		Colunas atuais = colunasAte(linha);
+		if (atuais.tipos[linha] == TIPO_PERECIVEL) {
+			return ProdutoPerecivel.calcularValorDeVenda(atuais.precosCusto[linha], atuais.margensLucro[linha],
+					atuais.validades[linha], hoje);
+		}
+		return ProdutoNaoPerecivel.calcularValorDeVenda(atuais.precosCusto[linha], atuais.margensLucro[linha]);
+	}
+
+	/**
+	 * Cria um objeto Produto com os dados da linha informada. O produto mantém o código original,
+	 * sem consumir um novo código identificador, e guarda sua origem, para que um pedido deste catálogo
+	 * o registre apenas pelo número da linha.
+	 */
+	public Produto produto(int linha) {
+		Colunas atuais = colunasAte(linha);
+		Produto produto;
+		if (atuais.tipos[linha] == TIPO_PERECIVEL) {
+			produto = new ProdutoPerecivel(atuais.ids[linha], dicionario.decodificar(atuais.descricoes[linha]), atuais.precosCusto[linha],
+					atuais.margensLucro[linha], LocalDate.ofEpochDay(atuais.validades[linha]));
+		} else {
+			produto = new ProdutoNaoPerecivel(atuais.ids[linha], dicionario.decodificar(atuais.descricoes[linha]), atuais.precosCusto[linha],
+					atuais.margensLucro[linha]);
+		}
+		produto.catalogo = this;
+		produto.linha = linha;
+		return produto;
+	}
+
+	/**
+	 * Compara as descrições de duas linhas sem diferenciar maiúsculas e minúsculas e sem os espaços das pontas,
+	 * sem montar os textos (ver DicionarioDescricoes.comparar).
+	 */
+	int compararDescricoes(int linha, int outra) {
+		return dicionario.comparar(colunasAte(linha).descricoes[linha], colunasAte(outra).descricoes[outra]);
+	}
+
+	/**
+	 * Compara a descrição da linha com uma consulta separada por DicionarioDescricoes.separarConsulta,
+	 * na mesma ordem de compararDescricoes.
+	 */
+	int compararDescricao(int linha, String[] consulta) {
+		return dicionario.comparar(colunasAte(linha).descricoes[linha], consulta);
+	}
+
+	/**
+	 * Verifica se a descrição da linha começa com a consulta separada por DicionarioDescricoes.separarConsulta.
+	 */
+	boolean descricaoComecaCom(int linha, String[] consulta) {
+		return dicionario.comecaCom(colunasAte(linha).descricoes[linha], consulta);
+	}
+
+	/**
+	 * Retorna a linha do produto com o código informado, percorrendo o catálogo.
+	 * Adequado a catálogos pequenos; para o catálogo completo, use IndiceProdutos.
+	 * @return A linha do produto, ou -1 caso não exista
+	 */
+	int procurar(int idProduto) {
+		int quantos = quantidade;
+		int[] ids = colunas.ids;
+		for (int linha = 0; linha < quantos; linha++) {
+			if (ids[linha] == idProduto) {
+				return linha;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Verifica a linha e retorna colunas que a contêm. A quantidade é lida antes das colunas: quaisquer colunas
+	 * publicadas depois dela contêm todas as linhas que ela abrange.
+	 */
+	private Colunas colunasAte(int linha) {
+		if (linha < 0 || linha >= quantidade) {
+			throw new IndexOutOfBoundsException("Linha " + linha + " inválida. Tamanho atual: " + quantidade);
+		}
+		return colunas;
+	}
+
+	/**
+	 * Vetores do catálogo; ao crescer, o catálogo passa a usar uma cópia maior.
+	 */
+	private static final class Colunas {
+
+		final int[] ids;
+		final byte[] tipos;
+		final long[] precosCusto;
+		final long[] margensLucro;
+		/** Validade em dias desde 01/01/1970; 0 para produtos não perecíveis */
+		final int[] validades;
+		/** Código da descrição no dicionário */
+		final int[] descricoes;
+
+		Colunas(int capacidade) {
+			ids = new int[capacidade];
+			tipos = new byte[capacidade];
+			precosCusto = new long[capacidade];
+			margensLucro = new long[capacidade];
+			validades = new int[capacidade];
+			descricoes = new int[capacidade];
+		}
+
+		Colunas(Colunas anteriores, int capacidade) {
+			ids = Arrays.copyOf(anteriores.ids, capacidade);
+			tipos = Arrays.copyOf(anteriores.tipos, capacidade);
+			precosCusto = Arrays.copyOf(anteriores.precosCusto, capacidade);
+			margensLucro = Arrays.copyOf(anteriores.margensLucro, capacidade);
+			validades = Arrays.copyOf(anteriores.validades, capacidade);
+			descricoes = Arrays.copyOf(anteriores.descricoes, capacidade);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Relógio usado no cálculo de preços, com granularidade de dia.
+ * A data de "hoje" é resolvida uma única vez por dia e reaproveitada até a meia-noite seguinte,
+ * de modo que o cálculo de preços em lote não cria objetos de data a cada item.
+ * Entre uma resolução e outra, cada consulta apenas compara System.nanoTime() com o prazo do dia,
+ * sem ler o relógio de preços. O relógio pode ser substituído (por exemplo, fixado em uma data para testes).
+ */
+public final class RelogioPrecos {
+
+	/**
+	 * Intervalo máximo, em nanossegundos, entre duas leituras do relógio, para que ajustes
+	 * na hora do sistema sejam percebidos mesmo antes da meia-noite
+	 */
+	private static final long INTERVALO_MAXIMO_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	/** Relógio em uso, o dia resolvido com ele e o instante (em System.nanoTime()) até o qual o dia vale */
+	private static final class Estado {
+		final Clock relogio;
+		final LocalDate data;
+		final long epochDay;
+		final long prazoNanos;
+
+		Estado(Clock relogio) {
+			long agoraNanos = System.nanoTime();
+			long agora = relogio.millis();
+			ZoneId zona = relogio.getZone();
+			this.relogio = relogio;
+			this.data = Instant.ofEpochMilli(agora).atZone(zona).toLocalDate();
+			this.epochDay = data.toEpochDay();
+			long fimMillis = data.plusDays(1).atStartOfDay(zona).toInstant().toEpochMilli();
+			this.prazoNanos = agoraNanos + Math.min(TimeUnit.MILLISECONDS.toNanos(fimMillis - agora), INTERVALO_MAXIMO_NANOS);
+		}
+
+		boolean vigente() {
+			return System.nanoTime() - prazoNanos < 0;
+		}
+	}
+
+	private static final AtomicReference<Estado> estado = new AtomicReference<>(new Estado(Clock.systemDefaultZone()));
+
+	private RelogioPrecos() {
+	}
+
+	/**
+	 * Retorna a data de hoje segundo o relógio de preços.
+	 */
+	public static LocalDate hoje() {
+		return dia().data;
+	}
+
+	/**
+	 * Retorna o dia de hoje segundo o relógio de preços, contado em dias desde 01/01/1970.
+	 */
+	public static long diaAtual() {
+		return dia().epochDay;
+	}
+
+	/**
+	 * Substitui o relógio usado no cálculo de preços. O relógio e o dia resolvido com ele
+	 * são trocados juntos, de modo que nenhuma consulta combina o dia de um relógio com outro.
+	 * @param novo Novo relógio
+	 */
+	public static void usar(Clock novo) {
+		if (novo == null) {
+			throw new IllegalArgumentException("O relógio não pode ser nulo.");
+		}
+		estado.set(new Estado(novo));
+	}
+
+	/**
+	 * Fixa a data de hoje, no fuso horário padrão do sistema. Útil para testes.
+	 * @param data Data a ser considerada como hoje
+	 */
+	public static void fixar(LocalDate data) {
+		ZoneId zona = ZoneId.systemDefault();
+		usar(Clock.fixed(data.atStartOfDay(zona).toInstant(), zona));
+	}
+
+	/**
+	 * Volta a usar o relógio do sistema.
+	 */
+	public static void usarRelogioDoSistema() {
+		usar(Clock.systemDefaultZone());
+	}
+
+	private static Estado dia() {
+		Estado atual = estado.get();
+		while (!atual.vigente()) {
+			// Só substitui o estado que leu: se o relógio foi trocado nesse meio tempo, resolve com o novo
+			Estado renovado = new Estado(atual.relogio);
+			if (estado.compareAndSet(atual, renovado)) {
+				return renovado;
+			}
+			atual = estado.get();
+		}
+		return atual;
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * Reserva limitada de células livres para reutilização pelas estruturas encadeadas.
+ * As células devolvidas formam uma lista ligada pelo próprio campo próximo, então guardar
+ * e obter células não aloca memória. Ao ser devolvida, a célula tem o item e o próximo anulados,
+ * para que a reserva não mantenha vivo nenhum objeto da estrutura.
+ * Não é segura para uso por várias threads: cada estrutura mantém a sua própria reserva.
+ */
+public class ReservaCelulas<T> {
+
+	private final int capacidade;
+	private Celula<T> livres;
+	private int disponiveis;
+
+	/**
+	 * @param capacidade Quantidade máxima de células guardadas; as excedentes são deixadas para o coletor de lixo
+	 */
+	public ReservaCelulas(int capacidade) {
+		if (capacidade < 1) {
+			throw new IllegalArgumentException("A capacidade da reserva deve ser um número positivo.");
+		}
+		this.capacidade = capacidade;
+		livres = null;
+		disponiveis = 0;
+	}
+
+	/**
+	 * Retorna uma célula com o item e o próximo informados, reutilizando uma célula livre quando houver.
+	 */
+	public Celula<T> obter(T item, Celula<T> proximo) {
+		Celula<T> celula = livres;
+		if (celula == null) {
+			return new Celula<T>(item, proximo);
+		}
+		livres = celula.getProximo();
+		disponiveis--;
+		celula.setItem(item);
+		celula.setProximo(proximo);
+		return celula;
+	}
+
+	/**
+	 * Guarda a célula para reutilização, caso ainda haja espaço na reserva.
+	 * A célula não deve mais ser usada por quem a devolveu.
+	 */
+	public void devolver(Celula<T> celula) {
+		celula.setItem(null);
+		if (disponiveis == capacidade) {
+			celula.setProximo(null);
+			return;
+		}
+		celula.setProximo(livres);
+		livres = celula;
+		disponiveis++;
+	}
+
+	public int disponiveis() {
+		return disponiveis;
+	}
+
+	public int capacidade() {
+		return capacidade;
+	}
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * Somas acumuladas (prefixadas) de uma métrica dos itens de uma fila.
+ * Para cada item na fila guarda a soma da métrica de todos os itens inseridos até ele;
+ * a soma dos N primeiros itens é então a diferença entre duas posições, obtida em O(1).
+ * Deve ser alimentada na mesma ordem das inserções e remoções da fila acompanhada.
+ */
+public class SomasPrefixadas {
+
+	private double[] acumulados;
+	private int inicio;
+	private int quantidade;
+
+	/** Soma acumulada anterior ao primeiro item da fila */
+	private double base;
+
+	public SomasPrefixadas() {
+		this(16);
+	}
+
+	public SomasPrefixadas(int capacidadeInicial) {
+		acumulados = new double[Math.max(1, capacidadeInicial)];
+		inicio = 0;
+		quantidade = 0;
+		base = 0.0;
+	}
+
+	/**
+	 * Registra o valor da métrica do item que acabou de entrar no fim da fila.
+	 */
+	public void adicionar(double valor) {
+		if (quantidade == acumulados.length) {
+			double[] novo = new double[acumulados.length * 2];
+			int primeiroBloco = Math.min(quantidade, acumulados.length - inicio);
+			System.arraycopy(acumulados, inicio, novo, 0, primeiroBloco);
+			System.arraycopy(acumulados, 0, novo, primeiroBloco, quantidade - primeiroBloco);
+			acumulados = novo;
+			inicio = 0;
+		}
+		double anterior = (quantidade == 0) ? base : acumulado(quantidade - 1);
+		acumulados[(inicio + quantidade) % acumulados.length] = anterior + valor;
+		quantidade++;
+	}
+
+	/**
+	 * Descarta o item que acabou de sair do início da fila.
+	 */
+	public void removerPrimeiro() {
+		if (quantidade == 0) {
+			throw new IllegalStateException("Não há somas registradas para remover.");
+		}
+		base = acumulados[inicio];
+		inicio = (inicio + 1) % acumulados.length;
+		quantidade--;
+
+		// Fila vazia: recomeça do zero para não acumular erro de arredondamento
+		if (quantidade == 0) {
+			base = 0.0;
+			inicio = 0;
+		}
+	}
+
+	/**
+	 * Descarta, de uma só vez, os n itens que acabaram de sair do início da fila.
+	 * @throws IllegalStateException caso não haja n somas registradas
+	 */
+	public void removerPrimeiros(int n) {
+		if (n < 0 || n > quantidade) {
+			throw new IllegalStateException("Não há " + n + " somas registradas para remover.");
+		}
+		if (n == 0) {
+			return;
+		}
+		base = acumulado(n - 1);
+		inicio = (inicio + n) % acumulados.length;
+		quantidade -= n;
+
+		if (quantidade == 0) {
+			base = 0.0;
+			inicio = 0;
+		}
+	}
+
+	/**
+	 * Descarta todas as somas registradas.
+	 */
+	public void limpar() {
+		Arrays.fill(acumulados, 0.0);
+		inicio = 0;
+		quantidade = 0;
+		base = 0.0;
+	}
+
+	public int contagem() {
+		return quantidade;
+	}
+
+	/**
+	 * Retorna a soma da métrica dos primeiros itens da fila.
+	 * @param n Quantidade de itens, a partir do início da fila (entre 0 e contagem())
+	 * @throws IllegalArgumentException caso n esteja fora dos limites
+	 */
+	public double soma(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("A quantidade não pode ser negativa.");
+		}
+		if (n > quantidade) {
+			throw new IllegalArgumentException("A fila não contém " + n + " elementos. Tamanho atual: " + quantidade);
+		}
+		if (n == 0) {
+			return 0.0;
+		}
+		return acumulado(n - 1) - base;
+	}
+
+	/**
+	 * Retorna a média da métrica dos primeiros itens da fila.
+	 * @param n Quantidade de itens, a partir do início da fila (entre 1 e contagem())
+	 * @throws IllegalArgumentException caso n esteja fora dos limites
+	 */
+	public double media(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("A quantidade deve ser um número positivo.");
+		}
+		return soma(n) / n;
+	}
+
+	private double acumulado(int posicao) {
+		return acumulados[(inicio + posicao) % acumulados.length];
+	}
+}
@@ -0,0 +1,68 @@
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator para estruturas que dão acesso direto a um elemento por sua posição lógica
+ * (por exemplo, vetores circulares ou pilhas em vetor percorridas do topo para o fundo).
+ * Conhece o tamanho exato e divide o intervalo de posições ao meio, o que permite que
+ * streams paralelos repartam o trabalho de forma equilibrada sem copiar elementos.
+ */
+class SpliteratorIndexado<E> implements Spliterator<E> {
+
+	private final IntFunction<E> acesso;
+	private int posicao;
+	private final int fim;
+	private final int caracteristicas;
+
+	/**
+	 * @param acesso Função que retorna o elemento na posição lógica informada
+	 * @param inicio Primeira posição (inclusiva)
+	 * @param fim Última posição (exclusiva)
+	 * @param caracteristicas Características adicionais às de SIZED, SUBSIZED e ORDERED
+	 */
+	SpliteratorIndexado(IntFunction<E> acesso, int inicio, int fim, int caracteristicas) {
+		this.acesso = acesso;
+		this.posicao = inicio;
+		this.fim = fim;
+		this.caracteristicas = caracteristicas | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super E> acao) {
+		if (posicao >= fim) {
+			return false;
+		}
+		acao.accept(acesso.apply(posicao++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super E> acao) {
+		for (int i = posicao; i < fim; i++) {
+			acao.accept(acesso.apply(i));
+		}
+		posicao = fim;
+	}
+
+	@Override
+	public Spliterator<E> trySplit() {
+		int meio = (posicao + fim) >>> 1;
+		if (meio <= posicao) {
+			return null;
+		}
+		Spliterator<E> primeiraMetade = new SpliteratorIndexado<>(acesso, posicao, meio, caracteristicas);
+		posicao = meio;
+		return primeiraMetade;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fim - posicao;
+	}
+
+	@Override
+	public int characteristics() {
+		return caracteristicas;
+	}
+}
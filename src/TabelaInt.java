@@ -0,0 +1,130 @@
+import java.util.Objects;
+
+/**
+ * Tabela hash com chaves int, em endereçamento aberto (sondagem linear). As chaves são guardadas
+ * em um vetor de int, sem objetos Integer, e a tabela dobra de tamanho sempre que passa da metade
+ * da ocupação. A remoção desloca para trás as chaves seguintes do mesmo agrupamento, de modo que
+ * a tabela não acumula marcas de posições removidas.
+ * @param <V> Tipo dos valores (não nulos)
+ */
+public class TabelaInt<V> {
+
+	/** Capacidade inicial da tabela (potência de 2) */
+	private static final int CAPACIDADE_INICIAL = 16;
+
+	private int[] chaves;
+	/** Valores de cada posição; null indica posição livre */
+	private Object[] valores;
+	private int quantidade;
+
+	public TabelaInt() {
+		this(0);
+	}
+
+	/**
+	 * Cria a tabela já dimensionada para a quantidade esperada de chaves.
+	 * @param quantidadeEsperada Quantidade de chaves que se espera guardar
+	 */
+	public TabelaInt(int quantidadeEsperada) {
+		int capacidade = CAPACIDADE_INICIAL;
+		while (capacidade < quantidadeEsperada * 2) {
+			capacidade *= 2;
+		}
+		chaves = new int[capacidade];
+		valores = new Object[capacidade];
+		quantidade = 0;
+	}
+
+	/**
+	 * Associa o valor à chave. Se a chave já existir, seu valor é substituído.
+	 * @param chave Chave
+	 * @param valor Valor (não nulo)
+	 */
+	public void inserir(int chave, V valor) {
+		Objects.requireNonNull(valor);
+		if ((quantidade + 1) * 2 > chaves.length) {
+			redimensionar(chaves.length * 2);
+		}
+		int posicao = posicaoDe(chave);
+		if (valores[posicao] == null) {
+			chaves[posicao] = chave;
+			quantidade++;
+		}
+		valores[posicao] = valor;
+	}
+
+	/**
+	 * Localiza o valor associado à chave.
+	 * @return O valor associado à chave, ou null caso ela não exista
+	 */
+	@SuppressWarnings("unchecked")
+	public V localizar(int chave) {
+		return (V) valores[posicaoDe(chave)];
+	}
+
+	/**
+	 * Remove a chave da tabela.
+	 * @return O valor que estava associado à chave, ou null caso ela não exista
+	 */
+	@SuppressWarnings("unchecked")
+	public V remover(int chave) {
+		int vaga = posicaoDe(chave);
+		V removido = (V) valores[vaga];
+		if (removido == null) {
+			return null;
+		}
+		// Desloca para a vaga as chaves seguintes cuja posição ideal não fica entre a vaga e a posição atual
+		int mascara = chaves.length - 1;
+		int atual = (vaga + 1) & mascara;
+		while (valores[atual] != null) {
+			int ideal = espalhar(chaves[atual]) & mascara;
+			if (((atual - ideal) & mascara) >= ((atual - vaga) & mascara)) {
+				chaves[vaga] = chaves[atual];
+				valores[vaga] = valores[atual];
+				vaga = atual;
+			}
+			atual = (atual + 1) & mascara;
+		}
+		valores[vaga] = null;
+		quantidade--;
+		return removido;
+	}
+
+	public int size() {
+		return quantidade;
+	}
+
+	/**
+	 * Retorna a posição onde a chave está ou onde deveria ser inserida.
+	 */
+	private int posicaoDe(int chave) {
+		int mascara = chaves.length - 1;
+		int posicao = espalhar(chave) & mascara;
+		while (valores[posicao] != null && chaves[posicao] != chave) {
+			posicao = (posicao + 1) & mascara;
+		}
+		return posicao;
+	}
+
+	/**
+	 * Mistura os bits da chave para que chaves sequenciais não formem agrupamentos na tabela.
+	 */
+	private static int espalhar(int chave) {
+		int h = chave * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void redimensionar(int novaCapacidade) {
+		int[] chavesAntigas = chaves;
+		Object[] valoresAntigos = valores;
+		chaves = new int[novaCapacidade];
+		valores = new Object[novaCapacidade];
+		for (int i = 0; i < chavesAntigas.length; i++) {
+			if (valoresAntigos[i] != null) {
+				int posicao = posicaoDe(chavesAntigas[i]);
+				chaves[posicao] = chavesAntigas[i];
+				valores[posicao] = valoresAntigos[i];
+			}
+		}
+	}
+}